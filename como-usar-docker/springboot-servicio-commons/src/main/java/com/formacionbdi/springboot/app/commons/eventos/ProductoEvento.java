@@ -0,0 +1,60 @@
+package com.formacionbdi.springboot.app.commons.eventos;
+
+import java.io.Serializable;
+
+/**
+ * Cambio confirmado en la tabla de productos. La versión es el id de su fila en productos_outbox:
+ * sirve para reconocer un evento repetido (la entrega es al menos una vez), pero no para ordenar,
+ * porque dos transacciones sobre el mismo producto pueden confirmarse en orden inverso al de sus ids.
+ * Los consumidores solo invalidan caches, así que aplicar un evento viejo no deja datos obsoletos.
+ */
+public class ProductoEvento implements Serializable {
+
+	public enum Tipo {
+		CREADO, ACTUALIZADO, ELIMINADO
+	}
+
+	private Tipo tipo;
+	private Long id;
+	private long version;
+
+	public ProductoEvento() {
+	}
+
+	public ProductoEvento(Tipo tipo, Long id, long version) {
+		this.tipo = tipo;
+		this.id = id;
+		this.version = version;
+	}
+
+	public Tipo getTipo() {
+		return tipo;
+	}
+
+	public void setTipo(Tipo tipo) {
+		this.tipo = tipo;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	@Override
+	public String toString() {
+		return tipo + " " + id + " v" + version;
+	}
+
+	private static final long serialVersionUID = -5012479327384711690L;
+}
@@ -0,0 +1,11 @@
+package com.formacionbdi.springboot.app.commons.eventos;
+
+/**
+ * Lo implementan los beans con datos de productos en memoria; ProductoEventosConfig les entrega
+ * cada evento recibido, incluidos los que publicó la propia instancia.
+ */
+@FunctionalInterface
+public interface ProductoEventoHandler {
+
+	public void onProductoEvento(ProductoEvento evento);
+}
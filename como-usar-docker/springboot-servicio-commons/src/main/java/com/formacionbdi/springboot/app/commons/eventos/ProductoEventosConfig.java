@@ -0,0 +1,94 @@
+package com.formacionbdi.springboot.app.commons.eventos;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cliente del bus de eventos de productos (exchange fanout productos.eventos). Cada instancia
+ * declara su propia cola anónima, así todas reciben todos los eventos, y los reparte entre los
+ * ProductoEventoHandler del contexto. Se activa con @Import(ProductoEventosConfig.class).
+ *
+ * Los mensajes son JSON sin cabecera de tipo, para no depender del MessageConverter de cada servicio.
+ */
+@Configuration
+public class ProductoEventosConfig {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Bean
+	public FanoutExchange productoEventosExchange(@Value("${productos.eventos.exchange:productos.eventos}") String exchange) {
+		return new FanoutExchange(exchange, true, false);
+	}
+
+	@Bean
+	public Queue productoEventosQueue() {
+		return new AnonymousQueue();
+	}
+
+	@Bean
+	public Binding productoEventosBinding(FanoutExchange productoEventosExchange, Queue productoEventosQueue) {
+		return BindingBuilder.bind(productoEventosQueue).to(productoEventosExchange);
+	}
+
+	@Bean
+	public Receptor productoEventosReceptor(ObjectProvider<ProductoEventoHandler> handlers) {
+		return new Receptor(handlers);
+	}
+
+	public static Message mensaje(ProductoEvento evento) {
+		try {
+			return MessageBuilder.withBody(MAPPER.writeValueAsBytes(evento))
+					.setContentType(MessageProperties.CONTENT_TYPE_JSON)
+					.build();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static class Receptor {
+
+		private static final Logger log = LoggerFactory.getLogger(Receptor.class);
+
+		private final ObjectProvider<ProductoEventoHandler> handlers;
+
+		public Receptor(ObjectProvider<ProductoEventoHandler> handlers) {
+			this.handlers = handlers;
+		}
+
+		@RabbitListener(queues = "#{productoEventosQueue.name}")
+		public void recibir(Message mensaje) {
+			ProductoEvento evento;
+			try {
+				evento = MAPPER.readValue(mensaje.getBody(), ProductoEvento.class);
+			} catch (IOException e) {
+				log.warn("Evento de producto ilegible, se descarta: " + e.getMessage());
+				return;
+			}
+			log.debug("Evento de producto: " + evento);
+			handlers.orderedStream().forEach(handler -> {
+				try {
+					handler.onProductoEvento(evento);
+				} catch (RuntimeException e) {
+					log.warn("Error aplicando " + evento + " en " + handler.getClass().getSimpleName() + ": " + e.getMessage());
+				}
+			});
+		}
+	}
+}
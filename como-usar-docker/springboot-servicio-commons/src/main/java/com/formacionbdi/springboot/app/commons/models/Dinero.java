@@ -0,0 +1,135 @@
+package com.formacionbdi.springboot.app.commons.models;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Importe inmutable guardado como un long de céntimos: las sumas y productos son exactos y no
+ * pasan por Double. En JSON se escribe como número: 19.99 igual que antes, pero los importes enteros
+ * salen sin decimales (800 donde el antiguo precio Double escribía 800.0). Al pasar a céntimos se
+ * redondea siempre con HALF_EVEN, venga el importe como double o como BigDecimal.
+ */
+@JsonSerialize(using = Dinero.Serializador.class)
+@JsonDeserialize(using = Dinero.Deserializador.class)
+public final class Dinero implements Serializable, Comparable<Dinero> {
+
+	public static final Dinero CERO = new Dinero(0);
+
+	private final long centimos;
+
+	private Dinero(long centimos) {
+		this.centimos = centimos;
+	}
+
+	public static Dinero deCentimos(long centimos) {
+		return centimos == 0 ? CERO : new Dinero(centimos);
+	}
+
+	public static Dinero deUnidades(long unidades) {
+		return deCentimos(Math.multiplyExact(unidades, 100L));
+	}
+
+	// BigDecimal.valueOf usa la representación decimal más corta del double (19.99 y no
+	// 19.989999...), así el redondeo es el mismo que para un BigDecimal
+	public static Dinero de(double importe) {
+		if (Double.isNaN(importe) || Double.isInfinite(importe)) {
+			throw new ArithmeticException("Importe no válido: " + importe);
+		}
+		return de(BigDecimal.valueOf(importe));
+	}
+
+	public static Dinero de(BigDecimal importe) {
+		return deCentimos(importe.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact());
+	}
+
+	public long getCentimos() {
+		return centimos;
+	}
+
+	public Dinero sumar(Dinero otro) {
+		return deCentimos(Math.addExact(centimos, otro.centimos));
+	}
+
+	public Dinero multiplicar(int cantidad) {
+		return deCentimos(Math.multiplyExact(centimos, cantidad));
+	}
+
+	public boolean esEntero() {
+		return centimos % 100 == 0;
+	}
+
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(centimos, 2);
+	}
+
+	public double doubleValue() {
+		return centimos / 100.0;
+	}
+
+	@Override
+	public int compareTo(Dinero otro) {
+		return Long.compare(centimos, otro.centimos);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj || (obj instanceof Dinero && ((Dinero) obj).centimos == centimos);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(centimos);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+
+	public static class Serializador extends JsonSerializer<Dinero> {
+
+		@Override
+		public void serialize(Dinero valor, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+			// Los importes enteros, que son la mayoría, se escriben sin crear ningún objeto
+			if (valor.esEntero()) {
+				gen.writeNumber(valor.centimos / 100);
+			} else {
+				gen.writeNumber(valor.toBigDecimal());
+			}
+		}
+	}
+
+	public static class Deserializador extends JsonDeserializer<Dinero> {
+
+		@Override
+		public Dinero deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			JsonToken token = p.currentToken();
+			if (token == JsonToken.VALUE_NUMBER_INT) {
+				return deUnidades(p.getLongValue());
+			}
+			if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+				return de(p.getDecimalValue());
+			}
+			if (token == JsonToken.VALUE_STRING) {
+				String texto = p.getText().trim();
+				return texto.isEmpty() ? null : de(new BigDecimal(texto));
+			}
+			return (Dinero) ctxt.handleUnexpectedToken(Dinero.class, p);
+		}
+	}
+
+	private static final long serialVersionUID = 4126817315297410561L;
+
+}
@@ -0,0 +1,22 @@
+package com.formacionbdi.springboot.app.commons.models;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Guarda Dinero en la misma columna double que usaba el precio, así no hace falta migrar la tabla.
+ */
+@Converter
+public class DineroConverter implements AttributeConverter<Dinero, Double> {
+
+	@Override
+	public Double convertToDatabaseColumn(Dinero dinero) {
+		return dinero != null ? dinero.doubleValue() : null;
+	}
+
+	@Override
+	public Dinero convertToEntityAttribute(Double valor) {
+		return valor != null ? Dinero.de(valor) : null;
+	}
+
+}
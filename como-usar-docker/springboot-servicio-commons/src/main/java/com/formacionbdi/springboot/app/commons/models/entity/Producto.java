@@ -3,7 +3,9 @@ package com.formacionbdi.springboot.app.commons.models.entity;
 import java.io.Serializable;
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -13,8 +15,16 @@ import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.formacionbdi.springboot.app.commons.models.Dinero;
+import com.formacionbdi.springboot.app.commons.models.DineroConverter;
+
 @Entity
 @Table(name = "productos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "productos")
 public class Producto implements Serializable{
 
 	@Id
@@ -22,7 +32,9 @@ public class Producto implements Serializable{
 	private Long id;
 	
 	private String nombre;
-	private Double precio;
+	
+	@Convert(converter = DineroConverter.class)
+	private Dinero precio;
 	
 	@Column(name = "create_at")
 	@Temporal(TemporalType.DATE)
@@ -43,10 +55,10 @@ public class Producto implements Serializable{
 	public void setNombre(String nombre) {
 		this.nombre = nombre;
 	}
-	public Double getPrecio() {
+	public Dinero getPrecio() {
 		return precio;
 	}
-	public void setPrecio(Double precio) {
+	public void setPrecio(Dinero precio) {
 		this.precio = precio;
 	}
 	public Date getCreateAt() {
@@ -0,0 +1,155 @@
+package com.formacionbdi.springboot.app.gateway.agregacion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Backend for frontend: GET /api/agregados/{nombre}?id=1&cantidad=2 pide en paralelo todos los tramos de
+ * la composición gateway.agregaciones.{nombre} y devuelve un JSON con la respuesta de cada tramo bajo su
+ * nombre. Los tramos que fallan, superan su timeout o no terminan dentro del plazo de la agregación se
+ * omiten y se explican en "_errores".
+ */
+@RestController
+public class AgregacionController {
+
+    @Autowired
+    private AgregacionProperties properties;
+
+    @Autowired
+    private WebClient.Builder builder;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = builder.build();
+    }
+
+    @GetMapping("/api/agregados/{nombre}")
+    public Mono<ResponseEntity<Map<String, Object>>> agregar(@PathVariable String nombre,
+                                                             @RequestParam Map<String, String> parametros,
+                                                             @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        AgregacionProperties.Agregacion agregacion = properties.getAgregaciones().get(nombre);
+        if (agregacion == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        // Se validan todas las uris antes de lanzar ningún tramo
+        Map<AgregacionProperties.Tramo, URI> uris = new LinkedHashMap<>();
+        agregacion.getTramos().forEach(tramo -> uris.put(tramo, expandir(tramo, parametros)));
+
+        // Todos los tramos a la vez; al vencer el plazo se cancelan los que sigan pendientes
+        return Flux.fromIterable(uris.entrySet())
+                .flatMap(entrada -> llamar(entrada.getKey(), entrada.getValue(), authorization))
+                .take(Duration.ofMillis(agregacion.getPlazoMs()))
+                .collectList()
+                .map(resultados -> componer(agregacion, resultados));
+    }
+
+    private URI expandir(AgregacionProperties.Tramo tramo, Map<String, String> parametros) {
+        parametros.forEach((variable, valor) -> {
+            if (".".equals(valor) || "..".equals(valor)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Valor no válido para " + variable);
+            }
+        });
+        tramo.getVariables().forEach((variable, patron) -> {
+            String valor = parametros.get(variable);
+            if (valor != null && !valor.matches(patron)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Valor no válido para " + variable + " en el tramo " + tramo.getNombre());
+            }
+        });
+        String uri = tramo.getUri().startsWith("lb://") ? "http://" + tramo.getUri().substring(5) : tramo.getUri();
+        try {
+            // encode() antes de expandir codifica cada valor entero, incluidas / ? # y &, así un parámetro
+            // no puede cambiar la ruta del tramo (p. ej. usuario=../autenticacion/usuario/admin)
+            return UriComponentsBuilder.fromUriString(uri).encode().buildAndExpand(parametros).toUri();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Faltan parámetros para el tramo " + tramo.getNombre(), e);
+        }
+    }
+
+    private Mono<Resultado> llamar(AgregacionProperties.Tramo tramo, URI uri, String authorization) {
+        return webClient.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (authorization != null) {
+                        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                })
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofMillis(tramo.getTimeoutMs()))
+                .map(valor -> new Resultado(tramo, valor, null))
+                .defaultIfEmpty(new Resultado(tramo, NullNode.getInstance(), null))
+                .onErrorResume(e -> Mono.just(new Resultado(tramo, null, descripcion(e))));
+    }
+
+    private ResponseEntity<Map<String, Object>> componer(AgregacionProperties.Agregacion agregacion, List<Resultado> recibidos) {
+        Map<AgregacionProperties.Tramo, Resultado> porTramo = new LinkedHashMap<>();
+        recibidos.forEach(resultado -> porTramo.put(resultado.tramo, resultado));
+
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        Map<String, String> errores = new LinkedHashMap<>();
+        boolean obligatorioFallido = false;
+        // En el orden de la composición, no en el de llegada
+        for (AgregacionProperties.Tramo tramo : agregacion.getTramos()) {
+            Resultado resultado = porTramo.getOrDefault(tramo, new Resultado(tramo, null, "plazo"));
+            if (resultado.error == null) {
+                cuerpo.put(resultado.tramo.getNombre(), resultado.valor);
+            } else {
+                errores.put(resultado.tramo.getNombre(), resultado.error);
+                obligatorioFallido |= resultado.tramo.isObligatorio();
+            }
+        }
+        if (!errores.isEmpty()) {
+            cuerpo.put("_errores", errores);
+        }
+        return ResponseEntity.status(obligatorioFallido ? HttpStatus.BAD_GATEWAY : HttpStatus.OK).body(cuerpo);
+    }
+
+    private String descripcion(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException) {
+            return "estado " + ((WebClientResponseException) e).getRawStatusCode();
+        }
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static class Resultado {
+        private final AgregacionProperties.Tramo tramo;
+        private final JsonNode valor;
+        private final String error;
+
+        private Resultado(AgregacionProperties.Tramo tramo, JsonNode valor, String error) {
+            this.tramo = tramo;
+            this.valor = valor;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.formacionbdi.springboot.app.gateway.agregacion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composiciones de /api/agregados/{nombre}: cada una es una lista de tramos que se piden en paralelo.
+ * La uri de cada tramo admite variables {x} que se rellenan con los parámetros de la petición; cada valor
+ * se codifica entero (una / no separa segmentos) y, si el tramo define un patrón para la variable, debe cumplirlo.
+ * plazo-ms limita la agregación completa además del timeout de cada tramo.
+ */
+@ConfigurationProperties(prefix = "gateway")
+public class AgregacionProperties {
+
+    private Map<String, Agregacion> agregaciones = new LinkedHashMap<>();
+
+    public Map<String, Agregacion> getAgregaciones() {
+        return agregaciones;
+    }
+
+    public void setAgregaciones(Map<String, Agregacion> agregaciones) {
+        this.agregaciones = agregaciones;
+    }
+
+    public static class Agregacion {
+        private List<Tramo> tramos = new ArrayList<>();
+        private long plazoMs = 3000;
+
+        public List<Tramo> getTramos() {
+            return tramos;
+        }
+
+        public void setTramos(List<Tramo> tramos) {
+            this.tramos = tramos;
+        }
+
+        public long getPlazoMs() {
+            return plazoMs;
+        }
+
+        public void setPlazoMs(long plazoMs) {
+            this.plazoMs = plazoMs;
+        }
+    }
+
+    public static class Tramo {
+        private String nombre;
+        private String uri;
+        private long timeoutMs = 2000;
+        // Si falla un tramo obligatorio la agregación completa responde 502
+        private boolean obligatorio;
+        // Expresión regular que debe cumplir el valor de cada variable de la uri
+        private Map<String, String> variables = new LinkedHashMap<>();
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public void setUri(String uri) {
+            this.uri = uri;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public boolean isObligatorio() {
+            return obligatorio;
+        }
+
+        public void setObligatorio(boolean obligatorio) {
+            this.obligatorio = obligatorio;
+        }
+
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+
+        public void setVariables(Map<String, String> variables) {
+            this.variables = variables;
+        }
+    }
+}
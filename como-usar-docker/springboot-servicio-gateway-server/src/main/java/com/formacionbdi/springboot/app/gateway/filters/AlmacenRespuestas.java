@@ -0,0 +1,107 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Respuestas cacheadas por el filtro CacheRespuesta, compartidas por todas las rutas. El tamaño se
+ * limita por bytes de cuerpo y cada entrada caduca según el TTL de su ruta. Las claves empiezan por
+ * el id de la ruta seguido de un espacio.
+ */
+@Component
+public class AlmacenRespuestas {
+
+    @Value("${gateway.cache-respuestas.bytes-maximos:67108864}")
+    private long bytesMaximos;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Cache<String, Entrada> cache;
+
+    // Peticiones que ya están yendo al servicio, para que las idénticas esperen su respuesta
+    private final ConcurrentMap<String, CompletableFuture<Entrada>> enVuelo = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(bytesMaximos)
+                .weigher((String clave, Entrada entrada) -> clave.length() + entrada.respuesta.getCuerpo().length + 512)
+                .expireAfter(new Expiry<String, Entrada>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entrada value, long currentTime) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entrada value, long currentTime, long currentDuration) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entrada value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "gateway-respuestas");
+    }
+
+    public Entrada obtener(String clave) {
+        return cache.getIfPresent(clave);
+    }
+
+    public void guardar(String clave, Entrada entrada) {
+        cache.put(clave, entrada);
+    }
+
+    public ConcurrentMap<String, CompletableFuture<Entrada>> getEnVuelo() {
+        return enVuelo;
+    }
+
+    public void invalidarRuta(String ruta) {
+        cache.asMap().keySet().removeIf(clave -> clave.startsWith(ruta + " "));
+    }
+
+    public void invalidarTodo() {
+        cache.invalidateAll();
+    }
+
+    public static class Entrada {
+        private final RespuestaCapturada respuesta;
+        private final String etag;
+        private final long creada;
+        private final long ttlNanos;
+
+        public Entrada(RespuestaCapturada respuesta, String etag, long ttlNanos) {
+            this.respuesta = respuesta;
+            this.etag = etag;
+            this.creada = System.currentTimeMillis();
+            this.ttlNanos = ttlNanos;
+        }
+
+        public RespuestaCapturada getRespuesta() {
+            return respuesta;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getCreada() {
+            return creada;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deja pasar la respuesta al cliente tal cual y en paralelo guarda una copia del cuerpo.
+ * El resultado se completa con la respuesta capturada, o con null si no se pudo capturar
+ * (cuerpo mayor que el máximo, respuesta en streaming, error o cancelación).
+ *
+ * Para que reciba el cuerpo, el filtro que lo instala debe ejecutarse antes que NettyWriteResponseFilter.
+ */
+public class CapturaRespuestaDecorator extends ServerHttpResponseDecorator {
+
+    private final int maximoBytes;
+    private final CompletableFuture<RespuestaCapturada> resultado = new CompletableFuture<>();
+    private volatile ByteArrayOutputStream copia;
+
+    public CapturaRespuestaDecorator(ServerHttpResponse delegate, int maximoBytes) {
+        super(delegate);
+        this.maximoBytes = maximoBytes;
+    }
+
+    public CompletableFuture<RespuestaCapturada> getResultado() {
+        return resultado;
+    }
+
+    public void abandonar() {
+        resultado.complete(null);
+        // Lo copiado hasta ahora ya no sirve; se suelta sin esperar a que termine la respuesta
+        copia = null;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        int estado = estado();
+        copia = new ByteArrayOutputStream();
+
+        Flux<? extends DataBuffer> cuerpo = Flux.from(body)
+                .doOnNext(buffer -> {
+                    ByteArrayOutputStream actual = copia;
+                    if (resultado.isDone() || actual == null) {
+                        return;
+                    }
+                    int leidos = buffer.readableByteCount();
+                    // En long para que la suma no desborde con cuerpos cercanos a 2 GB
+                    if ((long) actual.size() + leidos > maximoBytes) {
+                        abandonar();
+                        return;
+                    }
+                    // asByteBuffer no mueve la posición de lectura, el buffer sigue intacto para el cliente
+                    byte[] bytes = new byte[leidos];
+                    buffer.asByteBuffer().get(bytes);
+                    actual.write(bytes, 0, leidos);
+                })
+                .doOnComplete(() -> {
+                    ByteArrayOutputStream actual = copia;
+                    if (!resultado.isDone() && actual != null) {
+                        resultado.complete(new RespuestaCapturada(estado, getDelegate().getHeaders(), actual.toByteArray()));
+                    }
+                })
+                .doOnError(e -> abandonar())
+                .doOnCancel(this::abandonar);
+        return super.writeWith(cuerpo);
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        // Respuestas en streaming (NDJSON, SSE): no se comparten
+        abandonar();
+        return super.writeAndFlushWith(body);
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        if (!resultado.isDone()) {
+            resultado.complete(new RespuestaCapturada(estado(), getDelegate().getHeaders(), new byte[0]));
+        }
+        return super.setComplete();
+    }
+
+    private int estado() {
+        return Optional.ofNullable(getDelegate().getRawStatusCode()).orElse(200);
+    }
+}
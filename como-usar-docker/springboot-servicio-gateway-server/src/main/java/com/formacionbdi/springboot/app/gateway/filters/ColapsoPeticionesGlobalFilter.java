@@ -0,0 +1,111 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Singleflight: si llegan a la vez varios GET idénticos (misma ruta, path, query y mismas cabeceras
+ * de gateway.singleflight.cabeceras, que incluyen Authorization), solo el primero va al servicio y el
+ * resto recibe una copia de su respuesta. Si la respuesta supera el tamaño máximo, es en streaming
+ * o falla, los que esperaban hacen su propia petición. Las peticiones condicionales, de rango o con
+ * cookies no se colapsan: su respuesta (304, 206 o personalizada) no vale para las demás.
+ */
+@Component
+public class ColapsoPeticionesGlobalFilter implements GlobalFilter, Ordered {
+
+    @Value("${gateway.singleflight.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${gateway.singleflight.cuerpo-maximo-bytes:1048576}")
+    private int cuerpoMaximo;
+
+    @Value("${gateway.singleflight.cabeceras:Authorization,Accept,Accept-Language,Accept-Encoding}")
+    private List<String> cabeceras;
+
+    @Value("${gateway.singleflight.espera-maxima-ms:10000}")
+    private long esperaMaxima;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private static final List<String> NO_COMPARTIBLES = Arrays.asList(HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_MATCH, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.IF_RANGE,
+            HttpHeaders.RANGE, HttpHeaders.COOKIE);
+
+    private final ConcurrentMap<String, CompletableFuture<RespuestaCapturada>> enVuelo = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!habilitado || route == null || request.getMethod() != HttpMethod.GET || request.getHeaders().getContentLength() > 0) {
+            return chain.filter(exchange);
+        }
+        if (NO_COMPARTIBLES.stream().anyMatch(request.getHeaders()::containsKey)) {
+            contar(route.getId(), "omitida");
+            return chain.filter(exchange);
+        }
+
+        String clave = clave(route.getId(), request);
+        CompletableFuture<RespuestaCapturada> nuevo = new CompletableFuture<>();
+        CompletableFuture<RespuestaCapturada> enCurso = enVuelo.putIfAbsent(clave, nuevo);
+        if (enCurso != null) {
+            contar(route.getId(), "seguidor");
+            // Se espera sobre una copia del futuro para que cancelar esta petición no afecte a las demás
+            return Mono.fromFuture(enCurso.thenApply(Optional::ofNullable))
+                    .timeout(Duration.ofMillis(esperaMaxima), Mono.just(Optional.empty()))
+                    .flatMap(respuesta -> respuesta.isPresent()
+                            ? respuesta.get().escribir(exchange.getResponse())
+                            : chain.filter(exchange));
+        }
+
+        contar(route.getId(), "lider");
+        CapturaRespuestaDecorator captura = new CapturaRespuestaDecorator(exchange.getResponse(), cuerpoMaximo);
+        captura.getResultado().whenComplete((respuesta, e) -> {
+            enVuelo.remove(clave, nuevo);
+            nuevo.complete(respuesta);
+        });
+        return chain.filter(exchange.mutate().response(captura).build())
+                .doFinally(senal -> captura.abandonar());
+    }
+
+    private String clave(String ruta, ServerHttpRequest request) {
+        StringBuilder clave = new StringBuilder(ruta).append(' ').append(request.getURI().getRawPath());
+        Optional.ofNullable(request.getURI().getRawQuery()).ifPresent(query -> clave.append('?').append(query));
+        for (String cabecera : cabeceras) {
+            clave.append('|').append(String.join(",", request.getHeaders().getOrEmpty(cabecera)));
+        }
+        return clave.toString();
+    }
+
+    private void contar(String ruta, String papel) {
+        registry.counter("gateway.singleflight.peticiones", "ruta", ruta, "papel", papel).increment();
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de CacheRespuesta y antes de NettyWriteResponseFilter
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
@@ -4,6 +4,7 @@ import brave.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -20,12 +21,20 @@ public class EjemploGlobalFilter implements GlobalFilter, Ordered {
 
     private final Logger logger = LoggerFactory.getLogger(EjemploGlobalFilter.class);
 
+    // Log de cada petición; desactivado en application.properties, para tiempos usar /actuator/latencias
+    @Value("${gateway.filtros.log-peticiones:true}")
+    private boolean logPeticiones;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        logger.info("Ejecutando filtro pre");
+        if (logPeticiones) {
+            logger.info("Ejecutando filtro pre");
+        }
         exchange.getRequest().mutate().headers(httpHeaders -> httpHeaders.add("token", "123456"));
         return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            logger.info("Ejecutando filtro post");
+            if (logPeticiones) {
+                logger.info("Ejecutando filtro post");
+            }
             Optional.ofNullable(exchange.getRequest().getHeaders().getFirst("token")).ifPresent(valor -> {
                 exchange.getResponse().getHeaders().add("token", valor);
             });
@@ -0,0 +1,31 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventoHandler;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventosConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Import;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Descarta las respuestas cacheadas de las rutas que muestran productos cuando servicio-productos
+ * publica un cambio. Las claves no llevan el id del producto, así que se invalida la ruta entera.
+ */
+@Component
+@Import(ProductoEventosConfig.class)
+public class InvalidacionRespuestasProductos implements ProductoEventoHandler {
+
+    @Value("${gateway.cache-respuestas.invalidar-con-productos:servicio-productos,servicio-items}")
+    private List<String> rutas;
+
+    @Autowired
+    private AlmacenRespuestas almacen;
+
+    @Override
+    public void onProductoEvento(ProductoEvento evento) {
+        rutas.forEach(almacen::invalidarRuta);
+    }
+}
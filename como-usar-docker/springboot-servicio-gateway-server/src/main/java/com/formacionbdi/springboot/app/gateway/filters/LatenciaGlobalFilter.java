@@ -0,0 +1,94 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la latencia de cada petición por ruta, estado HTTP e instancia del servicio que la atendió.
+ * Los timers de Micrometer calculan los percentiles con histogramas HdrHistogram por ventana de tiempo,
+ * sin bloqueos al registrar. Se consultan en /actuator/latencias o /actuator/metrics/gateway.latencia.
+ */
+@Component
+public class LatenciaGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String METRICA = "gateway.latencia";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Timers ya registrados, para no pasar por el builder y el registro en cada petición
+    private final ConcurrentMap<Etiquetas, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long inicio = System.nanoTime();
+        return chain.filter(exchange).doFinally(senal -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            URI destino = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+            String estado = Optional.ofNullable(exchange.getResponse().getRawStatusCode()).map(String::valueOf).orElse("desconocido");
+            Etiquetas etiquetas = new Etiquetas(route != null ? route.getId() : "ninguna", estado,
+                    // Sin instancia cuando la respuesta no llegó a salir al servicio (cache, 429...)
+                    destino != null && destino.getHost() != null ? destino.getHost() + ":" + destino.getPort() : "ninguna");
+            timers.computeIfAbsent(etiquetas, this::crearTimer).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private Timer crearTimer(Etiquetas etiquetas) {
+        return Timer.builder(METRICA)
+                .description("Latencia de las peticiones que pasan por el gateway")
+                .tags("ruta", etiquetas.ruta, "estado", etiquetas.estado, "instancia", etiquetas.instancia)
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .register(registry);
+    }
+
+    @Override
+    public int getOrder() {
+        // Lo más fuera posible para medir también lo que hacen los demás filtros
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private static final class Etiquetas {
+        private final String ruta;
+        private final String estado;
+        private final String instancia;
+
+        Etiquetas(String ruta, String estado, String instancia) {
+            this.ruta = ruta;
+            this.estado = estado;
+            this.instancia = instancia;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Etiquetas)) {
+                return false;
+            }
+            Etiquetas otras = (Etiquetas) obj;
+            return ruta.equals(otras.ruta) && estado.equals(otras.estado) && instancia.equals(otras.instancia);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ruta, estado, instancia);
+        }
+    }
+}
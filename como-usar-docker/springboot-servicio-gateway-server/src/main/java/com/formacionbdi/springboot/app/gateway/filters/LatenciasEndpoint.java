@@ -0,0 +1,51 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/latencias: percentiles (en ms) de gateway.latencia por ruta, estado e instancia.
+ */
+@Component
+@Endpoint(id = "latencias")
+public class LatenciasEndpoint {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @ReadOperation
+    public List<Map<String, Object>> latencias() {
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Timer timer : registry.find(LatenciaGlobalFilter.METRICA).timers()) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (Tag tag : timer.getId().getTags()) {
+                fila.put(tag.getKey(), tag.getValue());
+            }
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            fila.put("peticiones", snapshot.count());
+            fila.put("media", snapshot.mean(TimeUnit.MILLISECONDS));
+            fila.put("maximo", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+                // 0.5 -> p50, 0.999 -> p999
+                String nombre = BigDecimal.valueOf(percentil.percentile()).movePointRight(2).stripTrailingZeros().toPlainString();
+                fila.put("p" + nombre.replace(".", ""), percentil.value(TimeUnit.MILLISECONDS));
+            }
+            resultado.add(fila);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,61 @@
+package com.formacionbdi.springboot.app.gateway.filters;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estado, cabeceras y cuerpo de una respuesta ya recibida, para poder repetirla en otras peticiones.
+ */
+public class RespuestaCapturada {
+
+    // Cabeceras propias de cada conexión o de cada cliente que no se deben repetir
+    private static final List<String> EXCLUIDAS = Arrays.asList(HttpHeaders.SET_COOKIE, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH, "Keep-Alive");
+
+    private final int estado;
+    private final HttpHeaders cabeceras;
+    private final byte[] cuerpo;
+
+    public RespuestaCapturada(int estado, HttpHeaders origen, byte[] cuerpo) {
+        this.estado = estado;
+        this.cabeceras = new HttpHeaders();
+        origen.forEach((nombre, valores) -> {
+            if (EXCLUIDAS.stream().noneMatch(nombre::equalsIgnoreCase)) {
+                cabeceras.put(nombre, new ArrayList<>(valores));
+            }
+        });
+        this.cuerpo = cuerpo;
+    }
+
+    public int getEstado() {
+        return estado;
+    }
+
+    public HttpHeaders getCabeceras() {
+        return cabeceras;
+    }
+
+    public byte[] getCuerpo() {
+        return cuerpo;
+    }
+
+    public Mono<Void> escribir(ServerHttpResponse response) {
+        return escribir(response, new HttpHeaders());
+    }
+
+    public Mono<Void> escribir(ServerHttpResponse response, HttpHeaders adicionales) {
+        response.setRawStatusCode(estado);
+        response.getHeaders().putAll(cabeceras);
+        response.getHeaders().putAll(adicionales);
+        response.getHeaders().setContentLength(cuerpo.length);
+        if (cuerpo.length == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cuerpo)));
+    }
+}
@@ -0,0 +1,247 @@
+package com.formacionbdi.springboot.app.gateway.filters.factory;
+
+import com.formacionbdi.springboot.app.gateway.filters.AlmacenRespuestas;
+import com.formacionbdi.springboot.app.gateway.filters.CapturaRespuestaDecorator;
+import com.formacionbdi.springboot.app.gateway.filters.RespuestaCapturada;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cachea en memoria las respuestas 200 de los GET de la ruta durante ttlSegundos (o menos si el servicio
+ * indica un max-age menor). La clave es ruta + path + query + valor de las cabeceras de "vary".
+ * No se cachea si el servicio responde no-store o private, ni las peticiones con Authorization salvo que
+ * esa cabecera esté en "vary". Sirve 304 cuando el If-None-Match coincide con el ETag guardado. En un fallo
+ * solo sale una petición al servicio y las idénticas que llegan mientras tanto esperan su respuesta.
+ *
+ * Ejemplo: CacheRespuesta=30, Accept (ttl en segundos y cabecera de vary; para varias usar args.vary).
+ */
+@Component
+public class CacheRespuestaGatewayFilterFactory extends AbstractGatewayFilterFactory<CacheRespuestaGatewayFilterFactory.Configuracion> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(?:s-)?max-age=(\\d+)");
+
+    // Antes de NettyWriteResponseFilter, para que escriba sobre la respuesta decorada
+    private static final int ORDEN = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    @Autowired
+    private AlmacenRespuestas almacen;
+
+    // Las respuestas mayores pasan al cliente sin guardarse, sin llegar a copiarse enteras en memoria
+    @Value("${gateway.cache-respuestas.entrada-maxima-bytes:1048576}")
+    private int entradaMaxima;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public CacheRespuestaGatewayFilterFactory() {
+        super(Configuracion.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("ttlSegundos", "vary");
+    }
+
+    @Override
+    public String name() {
+        return "CacheRespuesta";
+    }
+
+    @Override
+    public GatewayFilter apply(Configuracion config) {
+        String ruta = Optional.ofNullable(config.routeId).orElse("desconocida");
+        long ttlNanos = TimeUnit.SECONDS.toNanos(config.ttlSegundos);
+        Counter aciertos = contador(ruta, "hit");
+        Counter fallos = contador(ruta, "miss");
+        Counter coalescidas = contador(ruta, "coalescida");
+        Counter omitidas = contador(ruta, "bypass");
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !cacheable(request, config.vary)) {
+                omitidas.increment();
+                return chain.filter(exchange);
+            }
+
+            String clave = clave(ruta, request, config.vary);
+            AlmacenRespuestas.Entrada entrada = almacen.obtener(clave);
+            if (entrada != null) {
+                aciertos.increment();
+                return servir(exchange, entrada);
+            }
+
+            CompletableFuture<AlmacenRespuestas.Entrada> nuevo = new CompletableFuture<>();
+            CompletableFuture<AlmacenRespuestas.Entrada> enCurso = almacen.getEnVuelo().putIfAbsent(clave, nuevo);
+            if (enCurso != null) {
+                coalescidas.increment();
+                // Se espera sobre una copia del futuro para que cancelar esta petición no afecte a las demás
+                return Mono.fromFuture(enCurso.thenApply(Optional::ofNullable))
+                        .timeout(Duration.ofMillis(config.esperaMaximaMs), Mono.just(Optional.empty()))
+                        .flatMap(resultado -> resultado.isPresent() ? servir(exchange, resultado.get()) : chain.filter(exchange));
+            }
+
+            fallos.increment();
+            return pedir(exchange, chain, clave, nuevo, ttlNanos);
+        }, ORDEN);
+    }
+
+    private Mono<Void> pedir(ServerWebExchange exchange, GatewayFilterChain chain, String clave,
+            CompletableFuture<AlmacenRespuestas.Entrada> nuevo, long ttlNanos) {
+        CapturaRespuestaDecorator captura = new CapturaRespuestaDecorator(exchange.getResponse(), entradaMaxima);
+        captura.getResultado().whenComplete((respuesta, e) -> {
+            AlmacenRespuestas.Entrada entrada = respuesta != null ? crearEntrada(respuesta, ttlNanos) : null;
+            if (entrada != null) {
+                almacen.guardar(clave, entrada);
+            }
+            almacen.getEnVuelo().remove(clave, nuevo);
+            nuevo.complete(entrada);
+        });
+
+        // El servicio siempre debe devolver la respuesta completa, que es la que se guarda
+        ServerHttpRequest request = exchange.getRequest().mutate().headers(headers -> {
+            headers.remove(HttpHeaders.IF_NONE_MATCH);
+            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        }).build();
+        return chain.filter(exchange.mutate().request(request).response(captura).build())
+                .doFinally(senal -> captura.abandonar());
+    }
+
+    private AlmacenRespuestas.Entrada crearEntrada(RespuestaCapturada respuesta, long ttlNanos) {
+        if (respuesta.getEstado() != HttpStatus.OK.value()) {
+            return null;
+        }
+        String cacheControl = Optional.ofNullable(respuesta.getCabeceras().getCacheControl()).orElse("").toLowerCase();
+        if (cacheControl.contains("no-store") || cacheControl.contains("private") || cacheControl.contains("no-cache")) {
+            return null;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        if (maxAge.find()) {
+            ttlNanos = Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(Long.parseLong(maxAge.group(1))));
+        }
+        if (ttlNanos <= 0) {
+            return null;
+        }
+        String etag = respuesta.getCabeceras().getETag();
+        if (etag == null) {
+            etag = "\"0" + DigestUtils.md5DigestAsHex(respuesta.getCuerpo()) + "\"";
+        }
+        return new AlmacenRespuestas.Entrada(respuesta, etag, ttlNanos);
+    }
+
+    private Mono<Void> servir(ServerWebExchange exchange, AlmacenRespuestas.Entrada entrada) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders adicionales = new HttpHeaders();
+        adicionales.setETag(entrada.getEtag());
+        adicionales.set(HttpHeaders.AGE, String.valueOf((System.currentTimeMillis() - entrada.getCreada()) / 1000));
+        adicionales.set("X-Cache", "HIT");
+
+        if (coincideEtag(exchange.getRequest().getHeaders().getIfNoneMatch(), entrada.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().putAll(adicionales);
+            return response.setComplete();
+        }
+        return entrada.getRespuesta().escribir(response, adicionales);
+    }
+
+    private boolean coincideEtag(List<String> ifNoneMatch, String etag) {
+        String sinDebil = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return ifNoneMatch.stream()
+                .map(valor -> valor.startsWith("W/") ? valor.substring(2) : valor)
+                .anyMatch(valor -> valor.equals("*") || valor.equals(sinDebil));
+    }
+
+    private boolean cacheable(ServerHttpRequest request, List<String> vary) {
+        HttpHeaders headers = request.getHeaders();
+        if (Optional.ofNullable(headers.getCacheControl()).orElse("").contains("no-store")) {
+            return false;
+        }
+        // Las respuestas que dependen del usuario no se comparten entre clientes
+        return !headers.containsKey(HttpHeaders.AUTHORIZATION)
+                || vary.stream().anyMatch(HttpHeaders.AUTHORIZATION::equalsIgnoreCase);
+    }
+
+    private String clave(String ruta, ServerHttpRequest request, List<String> vary) {
+        StringBuilder clave = new StringBuilder(ruta).append(' ').append(request.getURI().getRawPath());
+        Optional.ofNullable(request.getURI().getRawQuery()).ifPresent(query -> clave.append('?').append(query));
+        for (String cabecera : vary) {
+            clave.append('|').append(String.join(",", request.getHeaders().getOrEmpty(cabecera)));
+        }
+        return clave.toString();
+    }
+
+    private Counter contador(String ruta, String resultado) {
+        return Counter.builder("gateway.cache.respuestas")
+                .description("Peticiones GET por resultado de la cache de respuestas")
+                .tags("ruta", ruta, "resultado", resultado)
+                .register(registry);
+    }
+
+    public static class Configuracion implements HasRouteId {
+        private long ttlSegundos = 30;
+        private List<String> vary = Collections.emptyList();
+        private long esperaMaximaMs = 5000;
+        private String routeId;
+
+        public long getTtlSegundos() {
+            return ttlSegundos;
+        }
+
+        public void setTtlSegundos(long ttlSegundos) {
+            this.ttlSegundos = ttlSegundos;
+        }
+
+        public List<String> getVary() {
+            return vary;
+        }
+
+        public void setVary(List<String> vary) {
+            this.vary = vary;
+        }
+
+        public long getEsperaMaximaMs() {
+            return esperaMaximaMs;
+        }
+
+        public void setEsperaMaximaMs(long esperaMaximaMs) {
+            this.esperaMaximaMs = esperaMaximaMs;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
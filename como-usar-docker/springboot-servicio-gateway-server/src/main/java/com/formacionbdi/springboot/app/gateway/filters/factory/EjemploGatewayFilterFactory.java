@@ -2,6 +2,7 @@ package com.formacionbdi.springboot.app.gateway.filters.factory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -18,6 +19,9 @@ public class EjemploGatewayFilterFactory extends AbstractGatewayFilterFactory<Ej
 
     private Logger logger = LoggerFactory.getLogger(EjemploGatewayFilterFactory.class);
 
+    @Value("${gateway.filtros.log-peticiones:true}")
+    private boolean logPeticiones;
+
     public EjemploGatewayFilterFactory() {
         super(Configuracion.class);
     }
@@ -35,14 +39,18 @@ public class EjemploGatewayFilterFactory extends AbstractGatewayFilterFactory<Ej
     @Override
     public GatewayFilter apply(Configuracion config) {
         return (exchange, chain) -> {
-            logger.info("ejecutando pre gateway filter factory: " + config.mensaje);
+            if (logPeticiones) {
+                logger.info("ejecutando pre gateway filter factory: {}", config.mensaje);
+            }
 
             return chain.filter(exchange).then(Mono.fromRunnable(() -> {
                 Optional.ofNullable(config.cookieValor).ifPresent(cookie -> {
                     exchange.getResponse().addCookie(ResponseCookie.from(config.cookieNombre, cookie).build());
                 });
 
-                logger.info("ejecutando post gateway filter factory: " + config.mensaje);
+                if (logPeticiones) {
+                    logger.info("ejecutando post gateway filter factory: {}", config.mensaje);
+                }
             }));
         };
 
@@ -0,0 +1,91 @@
+package com.formacionbdi.springboot.app.gateway.filters.factory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador por clave con GCRA (equivalente a un token bucket): por cada clave solo se guarda el
+ * instante teórico de la próxima petición (TAT) en un AtomicLong, y cada petición lo avanza con un CAS,
+ * sin bloqueos. Admite "tasa" peticiones por segundo con ráfagas de hasta "rafaga" peticiones.
+ */
+public class Limitador {
+
+    private final double tasa;
+    private final int rafaga;
+    private final long clavesMaximas;
+    private final Duration inactividad;
+    private final long intervalo;
+    private final long tolerancia;
+    private final Cache<String, Estado> estados;
+
+    public Limitador(double tasa, int rafaga, long clavesMaximas, Duration inactividad) {
+        this.tasa = tasa;
+        this.rafaga = rafaga;
+        this.clavesMaximas = clavesMaximas;
+        this.inactividad = inactividad;
+        this.intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / tasa);
+        this.tolerancia = intervalo * Math.max(1, rafaga);
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(clavesMaximas)
+                .expireAfterAccess(inactividad)
+                .build();
+    }
+
+    /**
+     * Devuelve 0 si la petición se admite o los nanosegundos que habría que esperar para que se admitiera.
+     */
+    public long intentar(String clave) {
+        return intentar(clave, System.nanoTime());
+    }
+
+    long intentar(String clave, long ahora) {
+        Estado estado = estados.get(clave, k -> new Estado());
+        while (true) {
+            long tat = estado.tat.get();
+            long siguiente = Math.max(tat, ahora) + intervalo;
+            long exceso = siguiente - ahora - tolerancia;
+            if (exceso > 0) {
+                estado.rechazadas.increment();
+                return exceso;
+            }
+            if (estado.tat.compareAndSet(tat, siguiente)) {
+                estado.permitidas.increment();
+                return 0;
+            }
+        }
+    }
+
+    // Al refrescar las rutas se conserva el limitador, y su estado, si la configuración no cambió
+    public boolean mismaConfiguracion(double tasa, int rafaga, long clavesMaximas, Duration inactividad) {
+        return this.tasa == tasa && this.rafaga == rafaga && this.clavesMaximas == clavesMaximas
+                && this.inactividad.equals(inactividad);
+    }
+
+    public long claves() {
+        return estados.estimatedSize();
+    }
+
+    public Map<String, Map<String, Long>> estadisticas() {
+        Map<String, Map<String, Long>> resultado = new LinkedHashMap<>();
+        estados.asMap().forEach((clave, estado) -> {
+            Map<String, Long> valores = new LinkedHashMap<>();
+            valores.put("permitidas", estado.permitidas.sum());
+            valores.put("rechazadas", estado.rechazadas.sum());
+            resultado.put(clave, valores);
+        });
+        return resultado;
+    }
+
+    private static class Estado {
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE / 2);
+        private final LongAdder permitidas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+    }
+}
@@ -0,0 +1,34 @@
+package com.formacionbdi.springboot.app.gateway.filters.factory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/limitetasa: peticiones permitidas y rechazadas por clave en cada ruta con LimiteTasa.
+ */
+@Component
+@Endpoint(id = "limitetasa")
+public class LimiteTasaEndpoint {
+
+    @Autowired
+    private LimiteTasaGatewayFilterFactory factory;
+
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Long>>> limites() {
+        Map<String, Map<String, Map<String, Long>>> resultado = new LinkedHashMap<>();
+        factory.getLimitadores().forEach((ruta, limitador) -> resultado.put(ruta, limitador.estadisticas()));
+        return resultado;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Long>> limitesRuta(@Selector String ruta) {
+        Limitador limitador = factory.getLimitadores().get(ruta);
+        return limitador != null ? limitador.estadisticas() : null;
+    }
+}
@@ -0,0 +1,199 @@
+package com.formacionbdi.springboot.app.gateway.filters.factory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitación de peticiones en memoria, sin Redis. Se configura por ruta, por ejemplo
+ * LimiteTasa=usuario, 50, 100 (clave, peticiones por segundo, ráfaga). La clave puede ser
+ * usuario (user_name del JWT, o la IP si la petición es anónima), ip o ruta.
+ */
+@Component
+public class LimiteTasaGatewayFilterFactory extends AbstractGatewayFilterFactory<LimiteTasaGatewayFilterFactory.Configuracion> {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Antes de CacheRespuesta y del singleflight, para que los aciertos de cache y las peticiones
+    // que esperan a otra idéntica también cuenten para el límite
+    private static final int ORDEN = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+
+    // Limitador de cada ruta; sobrevive a los refrescos de rutas y lo consulta el endpoint de actuator
+    private final Map<String, Limitador> limitadores = new ConcurrentHashMap<>();
+
+    private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+    public LimiteTasaGatewayFilterFactory() {
+        super(Configuracion.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("clave", "tasa", "rafaga");
+    }
+
+    @Override
+    public String name() {
+        return "LimiteTasa";
+    }
+
+    @Override
+    public GatewayFilter apply(Configuracion config) {
+        String ruta = Optional.ofNullable(config.routeId).orElse("desconocida");
+        Duration inactividad = Duration.ofSeconds(config.inactividadSegundos);
+        Limitador limitador = limitadores.compute(ruta, (r, actual) ->
+                actual != null && actual.mismaConfiguracion(config.tasa, config.rafaga, config.clavesMaximas, inactividad)
+                        ? actual
+                        : new Limitador(config.tasa, config.rafaga, config.clavesMaximas, inactividad));
+
+        Contadores metricas = contadores.computeIfAbsent(ruta, this::registrarMetricas);
+        Counter permitidas = metricas.permitidas;
+        Counter rechazadas = metricas.rechazadas;
+
+        return new OrderedGatewayFilter((exchange, chain) -> resolverClave(config.clave, ruta, exchange).flatMap(clave -> {
+            long espera = limitador.intentar(clave);
+            if (espera == 0) {
+                permitidas.increment();
+                return chain.filter(exchange);
+            }
+            rechazadas.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            // Retry-After va en segundos enteros, redondeando hacia arriba
+            long segundos = Math.max(1, (espera + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+            return response.setComplete();
+        }), ORDEN);
+    }
+
+    private Contadores registrarMetricas(String ruta) {
+        Gauge.builder("gateway.limite.claves", limitadores, l -> Optional.ofNullable(l.get(ruta)).map(Limitador::claves).orElse(0L))
+                .description("Claves con estado en el limitador de la ruta")
+                .tag("ruta", ruta)
+                .register(registry);
+        return new Contadores(
+                Counter.builder("gateway.limite.peticiones")
+                        .tags("ruta", ruta, "resultado", "permitida")
+                        .register(registry),
+                Counter.builder("gateway.limite.peticiones")
+                        .tags("ruta", ruta, "resultado", "rechazada")
+                        .register(registry));
+    }
+
+    private Mono<String> resolverClave(String tipo, String ruta, ServerWebExchange exchange) {
+        if ("ruta".equals(tipo)) {
+            return Mono.just(ruta);
+        }
+        if ("usuario".equals(tipo)) {
+            return ReactiveSecurityContextHolder.getContext()
+                    .map(SecurityContext::getAuthentication)
+                    .filter(Authentication::isAuthenticated)
+                    .map(authentication -> "usuario:" + authentication.getName())
+                    .defaultIfEmpty("ip:" + ip(exchange));
+        }
+        return Mono.just("ip:" + ip(exchange));
+    }
+
+    private String ip(ServerWebExchange exchange) {
+        InetSocketAddress remoto = exchange.getRequest().getRemoteAddress();
+        return remoto != null && remoto.getAddress() != null ? remoto.getAddress().getHostAddress() : "desconocida";
+    }
+
+    public Map<String, Limitador> getLimitadores() {
+        return limitadores;
+    }
+
+    private static class Contadores {
+        private final Counter permitidas;
+        private final Counter rechazadas;
+
+        Contadores(Counter permitidas, Counter rechazadas) {
+            this.permitidas = permitidas;
+            this.rechazadas = rechazadas;
+        }
+    }
+
+    public static class Configuracion implements HasRouteId {
+        private String clave = "ip";
+        private double tasa = 100;
+        private int rafaga = 100;
+        private long clavesMaximas = 100_000;
+        private long inactividadSegundos = 600;
+        private String routeId;
+
+        public String getClave() {
+            return clave;
+        }
+
+        public void setClave(String clave) {
+            this.clave = clave;
+        }
+
+        public double getTasa() {
+            return tasa;
+        }
+
+        public void setTasa(double tasa) {
+            this.tasa = tasa;
+        }
+
+        public int getRafaga() {
+            return rafaga;
+        }
+
+        public void setRafaga(int rafaga) {
+            this.rafaga = rafaga;
+        }
+
+        public long getClavesMaximas() {
+            return clavesMaximas;
+        }
+
+        public void setClavesMaximas(long clavesMaximas) {
+            this.clavesMaximas = clavesMaximas;
+        }
+
+        public long getInactividadSegundos() {
+            return inactividadSegundos;
+        }
+
+        public void setInactividadSegundos(long inactividadSegundos) {
+            this.inactividadSegundos = inactividadSegundos;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
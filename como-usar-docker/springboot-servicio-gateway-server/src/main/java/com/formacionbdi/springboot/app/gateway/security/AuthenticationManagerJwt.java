@@ -1,8 +1,21 @@
 package com.formacionbdi.springboot.app.gateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -11,30 +24,162 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class AuthenticationManagerJwt implements ReactiveAuthenticationManager {
 
-    @Value("${config.security.oauth.client.jwt}")
-    private String llaveJwt;
+    private static final String LLAVE_JWT = "config.security.oauth.client.jwt";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private LlavesJwks llavesJwks;
+
+    // Tokens HMAC sin kid; se construye una vez y se vuelve a construir si cambia la llave en el config server
+    private volatile JwtParser parser;
+
+    // Tokens RSA con kid; la llave se busca entre las ya descargadas del JWKS de servicio-oauth
+    private JwtParser parserKid;
+
+    // Tokens ya verificados, por hash SHA-256 del token; cada entrada caduca con el exp del token
+    private Cache<String, TokenVerificado> verificados;
+
+    @PostConstruct
+    public void init() {
+        long ttlMaximo = TimeUnit.SECONDS.toNanos(env.getProperty("gateway.jwt.cache.ttl-maximo-segundos", Long.class, 300L));
+        verificados = Caffeine.newBuilder()
+                .maximumSize(env.getProperty("gateway.jwt.cache.tamano-maximo", Long.class, 10_000L))
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenVerificado value, long currentTime) {
+                        if (value.expira == null) {
+                            return ttlMaximo;
+                        }
+                        long restante = TimeUnit.MILLISECONDS.toNanos(value.expira.getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(restante, ttlMaximo));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenVerificado value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenVerificado value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        construirParser();
+        parserKid = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return llavesJwks.porKid(header.getKeyId());
+            }
+        }).build();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().contains(LLAVE_JWT)) {
+            construirParser();
+            verificados.invalidateAll();
+        }
+    }
+
+    private void construirParser() {
+        String secreto = env.getProperty(LLAVE_JWT);
+        if (secreto == null) {
+            parser = null;
+            return;
+        }
+        SecretKey llave = Keys.hmacShaKeyFor(Base64.getEncoder().encode(secreto.getBytes()));
+        parser = Jwts.parserBuilder().setSigningKey(llave).build();
+    }
 
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
-        return Mono.just(authentication.getCredentials().toString()).map(token -> {
-            SecretKey llave = Keys.hmacShaKeyFor(Base64.getEncoder().encode(llaveJwt.getBytes()));
-            return Jwts.parserBuilder().setSigningKey(llave).build().parseClaimsJws(token).getBody();
-        }).map(claims -> {
-            String username = claims.get("user_name", String.class);
-            List<String> roles = claims.get("authorities", List.class);
-            Collection<GrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-            return new UsernamePasswordAuthenticationToken(username, null, authorities);
+        return Mono.just(authentication.getCredentials().toString()).flatMap(token -> {
+            String clave = hash(token);
+            TokenVerificado verificado = verificados.getIfPresent(clave);
+            if (verificado != null) {
+                return Mono.just(verificado.authentication);
+            }
+            String kid = kid(token);
+            JwtParser hmac = parser;
+            Mono<TokenVerificado> verificacion;
+            if (kid != null && llavesJwks.habilitado()) {
+                // Si el kid aún no se conoce se descarga el JWKS antes de verificar, sin bloquear el event loop
+                verificacion = llavesJwks.obtener(kid)
+                        .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Llave JWT desconocida: " + kid)))
+                        .map(llave -> verificar(parserKid, token));
+            } else if (hmac != null) {
+                verificacion = Mono.fromCallable(() -> verificar(hmac, token));
+            } else {
+                verificacion = Mono.error(new BadCredentialsException("No hay llave para verificar el token"));
+            }
+            return verificacion.doOnNext(nuevo -> verificados.put(clave, nuevo))
+                    .map(nuevo -> nuevo.authentication);
         });
     }
+
+    private static String kid(String token) {
+        int punto = token.indexOf('.');
+        if (punto <= 0) {
+            return null;
+        }
+        try {
+            JsonNode cabecera = MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(0, punto)));
+            return cabecera.hasNonNull("kid") ? cabecera.get("kid").asText() : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private TokenVerificado verificar(JwtParser jwtParser, String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        String username = claims.get("user_name", String.class);
+        List<String> roles = claims.get("authorities", List.class);
+        Collection<GrantedAuthority> authorities = roles == null ? Collections.emptyList() : roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new TokenVerificado(new UsernamePasswordAuthenticationToken(username, null, authorities), claims.getExpiration());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class TokenVerificado {
+        private final Authentication authentication;
+        private final Date expira;
+
+        private TokenVerificado(Authentication authentication, Date expira) {
+            this.authentication = authentication;
+            this.expira = expira;
+        }
+    }
 }
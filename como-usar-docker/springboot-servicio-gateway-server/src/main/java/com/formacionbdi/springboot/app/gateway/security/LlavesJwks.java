@@ -0,0 +1,147 @@
+package com.formacionbdi.springboot.app.gateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Llaves públicas de servicio-oauth por kid, descargadas del JWKS y refrescadas en segundo plano.
+ * Un kid desconocido fuerza una descarga, como mucho una cada intervalo-minimo-segundos para que
+ * tokens con kids inventados no se conviertan en peticiones a servicio-oauth.
+ */
+@Component
+public class LlavesJwks {
+
+    private Logger log = LoggerFactory.getLogger(LlavesJwks.class);
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    @LoadBalanced
+    private WebClient.Builder webClientBuilder;
+
+    private WebClient client;
+    private String uri;
+    private long intervaloMinimo;
+    private Duration timeout;
+    private Disposable refresco;
+
+    private volatile Map<String, PublicKey> llaves = Collections.emptyMap();
+    private volatile Mono<Map<String, PublicKey>> enVuelo = Mono.just(Collections.emptyMap());
+    private final AtomicLong ultimaDescarga = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        uri = env.getProperty("gateway.jwt.jwks-uri");
+        if (uri == null) {
+            return;
+        }
+        uri = uri.startsWith("lb://") ? "http://" + uri.substring(5) : uri;
+        client = webClientBuilder.build();
+        intervaloMinimo = TimeUnit.SECONDS.toNanos(env.getProperty("gateway.jwt.jwks.intervalo-minimo-segundos", Long.class, 10L));
+        timeout = Duration.ofMillis(env.getProperty("gateway.jwt.jwks.timeout-ms", Long.class, 2000L));
+        ultimaDescarga.set(System.nanoTime() - intervaloMinimo);
+        long segundos = env.getProperty("gateway.jwt.jwks.refresco-segundos", Long.class, 300L);
+        // Si una descarga se alarga más que el periodo, los ticks acumulados se descartan
+        refresco = Flux.interval(Duration.ZERO, Duration.ofSeconds(segundos))
+                .onBackpressureDrop()
+                .concatMap(tick -> descargar())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (refresco != null) {
+            refresco.dispose();
+        }
+    }
+
+    public boolean habilitado() {
+        return uri != null;
+    }
+
+    /**
+     * Llave ya descargada; no bloquea.
+     */
+    public PublicKey porKid(String kid) {
+        return llaves.get(kid);
+    }
+
+    public Mono<PublicKey> obtener(String kid) {
+        PublicKey llave = llaves.get(kid);
+        if (llave != null) {
+            return Mono.just(llave);
+        }
+        return refrescar().flatMap(actuales -> Mono.justOrEmpty(actuales.get(kid)));
+    }
+
+    private Mono<Map<String, PublicKey>> refrescar() {
+        long ahora = System.nanoTime();
+        long ultima = ultimaDescarga.get();
+        if (ahora - ultima >= intervaloMinimo && ultimaDescarga.compareAndSet(ultima, ahora)) {
+            enVuelo = descargar().cache();
+        }
+        return enVuelo;
+    }
+
+    private Mono<Map<String, PublicKey>> descargar() {
+        return client.get().uri(uri)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, List<Map<String, String>>>>() {})
+                // Sin plazo, una descarga colgada dejaría enVuelo sin completar y todos los kids nuevos esperando
+                .timeout(timeout)
+                .map(this::convertir)
+                .doOnNext(nuevas -> {
+                    if (!nuevas.keySet().equals(llaves.keySet())) {
+                        log.info("Llaves JWKS: " + nuevas.keySet());
+                    }
+                    llaves = nuevas;
+                })
+                .onErrorResume(e -> {
+                    log.warn("No se pudo descargar el JWKS de " + uri + ", se siguen usando las llaves anteriores: " + e.getMessage());
+                    return Mono.just(llaves);
+                });
+    }
+
+    private Map<String, PublicKey> convertir(Map<String, List<Map<String, String>>> jwks) {
+        Map<String, PublicKey> nuevas = new HashMap<>();
+        for (Map<String, String> jwk : jwks.getOrDefault("keys", Collections.emptyList())) {
+            if (!"RSA".equals(jwk.get("kty")) || jwk.get("kid") == null) {
+                continue;
+            }
+            try {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(new BigInteger(1, decoder.decode(jwk.get("n"))), new BigInteger(1, decoder.decode(jwk.get("e"))));
+                nuevas.put(jwk.get("kid"), KeyFactory.getInstance("RSA").generatePublic(spec));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Llave JWKS '" + jwk.get("kid") + "' inválida, se ignora: " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableMap(nuevas);
+    }
+}
@@ -17,6 +17,7 @@ public class SpringSecurityConfig {
     @Bean
     public SecurityWebFilterChain configure(ServerHttpSecurity http) {
         return http.authorizeExchange()
+                .pathMatchers("/api/usuarios/autenticacion/**").denyAll()
                 .pathMatchers("/api/security/oauth/**").permitAll()
                 .pathMatchers(
                         HttpMethod.GET,
@@ -27,6 +28,7 @@ public class SpringSecurityConfig {
                         "/api/productos/ver/{id}"
                 ).permitAll()
                 .pathMatchers(HttpMethod.GET,"/api/usuarios/usuarios/{id}").hasAnyRole("ADMIN", "USER")
+                .pathMatchers(HttpMethod.GET, "/api/agregados/**").hasAnyRole("ADMIN", "USER")
                 .pathMatchers("/api/productos/**", "/api/items/**", "/api/usuarios/usuarios/**").hasRole("ADMIN")
                 .anyExchange().authenticated()
                 .and().addFilterAt(authenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
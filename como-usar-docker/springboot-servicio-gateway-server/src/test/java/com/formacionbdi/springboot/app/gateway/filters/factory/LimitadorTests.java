@@ -0,0 +1,82 @@
+package com.formacionbdi.springboot.app.gateway.filters.factory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LimitadorTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long INICIO = TimeUnit.SECONDS.toNanos(1000);
+
+    // 10 peticiones por segundo (una cada 100 ms) con ráfagas de 5
+    private final Limitador limitador = new Limitador(10, 5, 1000, Duration.ofMinutes(10));
+
+    @Test
+    void admiteLaRafagaCompletaYRechazaLaSiguiente() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.intentar("a", INICIO));
+        }
+        assertEquals(100 * MS, limitador.intentar("a", INICIO));
+    }
+
+    @Test
+    void trasEsperarLoIndicadoSeAdmiteOtraPeticion() {
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("a", INICIO);
+        }
+        long espera = limitador.intentar("a", INICIO);
+        assertEquals(0, limitador.intentar("a", INICIO + espera));
+        assertTrue(limitador.intentar("a", INICIO + espera) > 0);
+    }
+
+    @Test
+    void unaPeticionPorIntervaloNuncaSeRechaza() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limitador.intentar("a", INICIO + i * 100 * MS));
+        }
+    }
+
+    @Test
+    void elRechazoNoConsumeCapacidad() {
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("a", INICIO);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(100 * MS, limitador.intentar("a", INICIO));
+        }
+    }
+
+    @Test
+    void trasInactividadLaRafagaSeRecuperaSinAcumularMas() {
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("a", INICIO);
+        }
+        long despues = INICIO + TimeUnit.SECONDS.toNanos(60);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.intentar("a", despues));
+        }
+        assertTrue(limitador.intentar("a", despues) > 0);
+    }
+
+    @Test
+    void cadaClaveTieneSuPropioLimite() {
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("a", INICIO);
+        }
+        assertTrue(limitador.intentar("a", INICIO) > 0);
+        assertEquals(0, limitador.intentar("b", INICIO));
+    }
+
+    @Test
+    void reconoceSuConfiguracion() {
+        assertTrue(limitador.mismaConfiguracion(10, 5, 1000, Duration.ofMinutes(10)));
+        assertFalse(limitador.mismaConfiguracion(20, 5, 1000, Duration.ofMinutes(10)));
+        assertFalse(limitador.mismaConfiguracion(10, 6, 1000, Duration.ofMinutes(10)));
+    }
+}
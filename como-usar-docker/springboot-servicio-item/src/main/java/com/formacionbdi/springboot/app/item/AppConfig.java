@@ -1,16 +1,25 @@
 package com.formacionbdi.springboot.app.item;
 
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class AppConfig {
 
 	@Bean("clienteRest")
 	@LoadBalanced
-	public RestTemplate registrarRestTemplate() {
-		return new RestTemplate();
+	public RestTemplate registrarRestTemplate(CloseableHttpClient httpClient) {
+		return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+	}
+	
+	@Bean
+	@LoadBalanced
+	public WebClient.Builder registrarWebClient() {
+		return WebClient.builder();
 	}
 }
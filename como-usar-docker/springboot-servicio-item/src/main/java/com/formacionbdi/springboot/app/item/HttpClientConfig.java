@@ -0,0 +1,60 @@
+package com.formacionbdi.springboot.app.item;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Pool de conexiones HTTP con keep-alive compartido por el RestTemplate "clienteRest" y los
+ * clientes Feign (al existir este CloseableHttpClient, Spring Cloud no crea el suyo).
+ */
+@Configuration
+public class HttpClientConfig {
+	
+	@Bean
+	public PoolingHttpClientConnectionManager connectionManager(
+			@Value("${item.http.conexiones-maximas:200}") int conexionesMaximas,
+			@Value("${item.http.conexiones-por-ruta:50}") int conexionesPorRuta,
+			@Value("${item.http.ttl-segundos:300}") long ttl,
+			@Value("${item.http.validar-tras-inactividad-ms:2000}") int validarTrasInactividad) {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(ttl, TimeUnit.SECONDS);
+		connectionManager.setMaxTotal(conexionesMaximas);
+		connectionManager.setDefaultMaxPerRoute(conexionesPorRuta);
+		connectionManager.setValidateAfterInactivity(validarTrasInactividad);
+		return connectionManager;
+	}
+	
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+			@Value("${item.http.connect-timeout-ms:2000}") int connectTimeout,
+			@Value("${item.http.read-timeout-ms:30000}") int readTimeout,
+			@Value("${item.http.espera-conexion-ms:1000}") int esperaConexion,
+			@Value("${item.http.inactividad-segundos:30}") long inactividad) {
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setSocketTimeout(readTimeout)
+				.setConnectionRequestTimeout(esperaConexion)
+				.build();
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.disableCookieManagement()
+				.evictExpiredConnections()
+				.evictIdleConnections(inactividad, TimeUnit.SECONDS)
+				.build();
+	}
+	
+	@Bean
+	public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+		return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "servicio-items");
+	}
+}
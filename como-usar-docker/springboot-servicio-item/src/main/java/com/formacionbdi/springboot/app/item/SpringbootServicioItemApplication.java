@@ -6,11 +6,15 @@ import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.cloud.client.circuitbreaker.EnableCircuitBreaker;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventosConfig;
 
 @EnableCircuitBreaker
 @EnableEurekaClient
 @EnableFeignClients
 @SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
+@Import(ProductoEventosConfig.class)
 public class SpringbootServicioItemApplication {
 
 	public static void main(String[] args) {
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
@@ -21,6 +22,9 @@ public interface ProductoClienteRest {
 	@GetMapping("/ver/{id}")
 	public Producto detalle(@PathVariable Long id);
 	
+	@GetMapping("/ver")
+	public List<Producto> detalles(@RequestParam List<Long> ids);
+	
 	@PostMapping("/crear")
 	public Producto crear(@RequestBody Producto producto);
 	
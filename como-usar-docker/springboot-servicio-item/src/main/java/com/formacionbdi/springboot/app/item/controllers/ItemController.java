@@ -22,8 +22,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.formacionbdi.springboot.app.item.models.Carrito;
 import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.item.models.LineaCarrito;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+import com.formacionbdi.springboot.app.item.models.service.CarritoService;
 import com.formacionbdi.springboot.app.item.models.service.ItemService;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 
@@ -40,6 +43,9 @@ public class ItemController {
 	@Qualifier("serviceFeign")
 	private ItemService itemService;
 	
+	@Autowired
+	private CarritoService carritoService;
+	
 	@Value("${configuracion.texto}")
 	private String texto;
 	
@@ -55,16 +61,12 @@ public class ItemController {
 	}
 
 	public Item metodoAlternativo(Long id, Integer cantidad) {
-		Item item = new Item();
-		Producto producto = new Producto();
-		
-		item.setCantidad(cantidad);
-		producto.setId(id);
-		producto.setNombre("Camara Sony");
-		producto.setPrecio(500.00);
-		item.setProducto(producto);
-		return item;
-		
+		return Item.alternativo(id, cantidad);
+	}
+	
+	@PostMapping("/carrito")
+	public Carrito carrito(@RequestBody List<LineaCarrito> lineas) {
+		return carritoService.calcular(lineas);
 	}
 	
 	@GetMapping("/obtener-config")
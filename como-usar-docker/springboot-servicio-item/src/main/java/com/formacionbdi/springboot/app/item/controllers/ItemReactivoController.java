@@ -0,0 +1,65 @@
+package com.formacionbdi.springboot.app.item.controllers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.item.models.service.ItemReactiveService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismas consultas que ItemController pero devolviendo Mono/Flux: el hilo de Tomcat se libera
+ * mientras se espera a servicio-productos y la respuesta se escribe al completarse.
+ */
+@RestController
+@RequestMapping("/reactivo")
+public class ItemReactivoController {
+	
+	private static Logger log = LoggerFactory.getLogger(ItemReactivoController.class);
+	
+	@Autowired
+	@Qualifier("serviceWebClient")
+	private ItemReactiveService itemService;
+	
+	@Value("${item.reactivo.timeout-ms:2000}")
+	private long timeout;
+	
+	@GetMapping("/listar")
+	public Flux<Item> listar(){
+		return itemService.listar().timeout(Duration.ofMillis(timeout));
+	}
+	
+	@GetMapping("/ver/{id}/cantidad/{cantidad}")
+	public Mono<Item> detalle(@PathVariable Long id, @PathVariable Integer cantidad) {
+		return itemService.detalle(id, cantidad)
+				.timeout(Duration.ofMillis(timeout))
+				.onErrorResume(e -> {
+					log.info("Error al obtener el producto " + id + ": " + e.getMessage());
+					return Mono.just(Item.alternativo(id, cantidad));
+				});
+	}
+	
+	@GetMapping("/ver")
+	public Flux<Item> detalles(@RequestParam List<Long> ids, @RequestParam(required = false) List<Integer> cantidades) {
+		Map<Long, Integer> porId = new LinkedHashMap<>();
+		for (int i = 0; i < ids.size(); i++) {
+			porId.put(ids.get(i), cantidades != null && i < cantidades.size() ? cantidades.get(i) : 1);
+		}
+		return itemService.detalles(porId).timeout(Duration.ofMillis(timeout));
+	}
+}
@@ -0,0 +1,30 @@
+package com.formacionbdi.springboot.app.item.models;
+
+import java.util.List;
+
+import com.formacionbdi.springboot.app.commons.models.Dinero;
+
+public class Carrito {
+
+	private List<Item> items;
+
+	public Carrito() {
+	}
+
+	public Carrito(List<Item> items) {
+		this.items = items;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public void setItems(List<Item> items) {
+		this.items = items;
+	}
+
+	public Dinero getTotal() {
+		return Dinero.deCentimos(items.stream().mapToLong(Item::getTotalCentimos).reduce(0L, Math::addExact));
+	}
+
+}
@@ -1,18 +1,21 @@
 package com.formacionbdi.springboot.app.item.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.formacionbdi.springboot.app.commons.models.Dinero;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
 public class Item {
 
 	private Producto producto;
-	private Integer cantidad;
+	// Primitivo para no desempaquetar en cada total; una cantidad null se guarda como 0
+	private int cantidad;
 
 	public Item() {
 	}
 
 	public Item(Producto producto, Integer cantidad) {
 		this.producto = producto;
-		this.cantidad = cantidad;
+		setCantidad(cantidad);
 	}
 
 	public Producto getProducto() {
@@ -23,16 +26,35 @@ public class Item {
 		this.producto = producto;
 	}
 
-	public Integer getCantidad() {
+	public int getCantidad() {
 		return cantidad;
 	}
 
 	public void setCantidad(Integer cantidad) {
-		this.cantidad = cantidad;
+		this.cantidad = cantidad != null ? cantidad : 0;
 	}
 	
-	public Double getTotal() {
-		return producto.getPrecio() * cantidad.doubleValue();
+	// Item de respaldo cuando servicio-productos no responde
+	public static Item alternativo(Long id, Integer cantidad) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setNombre("Camara Sony");
+		producto.setPrecio(Dinero.deUnidades(500));
+		return new Item(producto, cantidad);
+	}
+	
+	// Total sin crear objetos, para sumar carritos y listados; sin producto o sin precio cuenta como 0
+	@JsonIgnore
+	public long getTotalCentimos() {
+		if (producto == null || producto.getPrecio() == null) {
+			return 0L;
+		}
+		return Math.multiplyExact(producto.getPrecio().getCentimos(), (long) cantidad);
+	}
+
+	// Solo se envuelve en Dinero al serializar
+	public Dinero getTotal() {
+		return Dinero.deCentimos(getTotalCentimos());
 	}
 
 }
@@ -0,0 +1,24 @@
+package com.formacionbdi.springboot.app.item.models;
+
+public class LineaCarrito {
+
+	private Long id;
+	private Integer cantidad;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Integer getCantidad() {
+		return cantidad;
+	}
+
+	public void setCantidad(Integer cantidad) {
+		this.cantidad = cantidad;
+	}
+
+}
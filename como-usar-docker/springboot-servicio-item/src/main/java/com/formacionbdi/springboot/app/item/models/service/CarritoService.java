@@ -0,0 +1,11 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.List;
+
+import com.formacionbdi.springboot.app.item.models.Carrito;
+import com.formacionbdi.springboot.app.item.models.LineaCarrito;
+
+public interface CarritoService {
+
+	public Carrito calcular(List<LineaCarrito> lineas);
+}
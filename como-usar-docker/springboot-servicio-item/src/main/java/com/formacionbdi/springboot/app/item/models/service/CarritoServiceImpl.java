@@ -0,0 +1,231 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.sleuth.instrument.async.TraceableExecutorService;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.formacionbdi.springboot.app.item.models.Carrito;
+import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.item.models.LineaCarrito;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Calcula un carrito resolviendo todas sus líneas a la vez: con el multi-get de servicio-productos
+ * (item.carrito.lote=true, en trozos de item.productos.maximo-ids) o repartiendo las búsquedas por id
+ * en un pool acotado. Todo el cálculo tiene un plazo global; las líneas que no se resuelven a tiempo
+ * o fallan usan el item alternativo. Las líneas sin id o sin cantidad positiva se rechazan con un 400.
+ */
+@Service
+public class CarritoServiceImpl implements CarritoService {
+	
+	private static Logger log = LoggerFactory.getLogger(CarritoServiceImpl.class);
+	
+	@Autowired
+	@Qualifier("serviceFeign")
+	private ItemService itemService;
+	
+	@Autowired
+	private BeanFactory beanFactory;
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	@Value("${item.carrito.lote:true}")
+	private boolean lote;
+	
+	@Value("${item.carrito.plazo-ms:2000}")
+	private long plazo;
+	
+	@Value("${item.carrito.hilos:16}")
+	private int hilos;
+	
+	@Value("${item.carrito.cola:256}")
+	private int cola;
+	
+	@Value("${item.productos.maximo-ids:100}")
+	private int maximoIds;
+	
+	private ExecutorService ejecutor;
+	private DistributionSummary lineas;
+	private Timer latencia;
+	private Counter alternativos;
+	
+	@PostConstruct
+	public void init() {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("carrito-"));
+		pool.allowCoreThreadTimeOut(true);
+		// Propaga la traza de Sleuth a las llamadas hechas desde el pool
+		ejecutor = new TraceableExecutorService(beanFactory, pool, "carrito");
+		
+		lineas = DistributionSummary.builder("items.carrito.lineas")
+				.description("Productos distintos resueltos por carrito")
+				.register(registry);
+		latencia = Timer.builder("items.carrito.latencia")
+				.description("Tiempo total de cálculo del carrito")
+				.tag("modo", lote ? "lote" : "paralelo")
+				.publishPercentiles(0.5, 0.9, 0.99)
+				.register(registry);
+		alternativos = Counter.builder("items.carrito.alternativos")
+				.description("Líneas resueltas con el item alternativo")
+				.register(registry);
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		ejecutor.shutdownNow();
+	}
+
+	@Override
+	public Carrito calcular(List<LineaCarrito> lineasCarrito) {
+		validar(lineasCarrito);
+		// Las líneas repetidas del mismo producto se suman en una sola
+		Map<Long, Integer> cantidades = new LinkedHashMap<>();
+		lineasCarrito.forEach(l -> cantidades.merge(l.getId(), l.getCantidad(), Integer::sum));
+		if (cantidades.isEmpty()) {
+			return new Carrito(Collections.emptyList());
+		}
+		lineas.record(cantidades.size());
+		
+		return latencia.record(() -> new Carrito(lote ? porLote(cantidades) : enParalelo(cantidades)));
+	}
+	
+	private void validar(List<LineaCarrito> lineasCarrito) {
+		if (lineasCarrito == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El carrito no tiene líneas");
+		}
+		for (LineaCarrito linea : lineasCarrito) {
+			if (linea == null || linea.getId() == null || linea.getCantidad() == null || linea.getCantidad() < 1) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cada línea necesita id y una cantidad mayor que cero");
+			}
+		}
+	}
+	
+	// Un multi-get por cada maximoIds productos, todos en paralelo dentro del mismo plazo global;
+	// si un trozo falla o no llega a tiempo, solo sus líneas usan el alternativo
+	private List<Item> porLote(Map<Long, Integer> cantidades) {
+		List<CompletableFuture<List<Item>>> futuros = new ArrayList<>();
+		for (List<Long> ids : LotesIds.partir(new ArrayList<>(cantidades.keySet()), maximoIds)) {
+			Map<Long, Integer> trozo = new LinkedHashMap<>();
+			ids.forEach(id -> trozo.put(id, cantidades.get(id)));
+			futuros.add(buscarLote(trozo));
+		}
+		
+		try {
+			CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(plazo, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			log.info("Carrito por lote sin resolver del todo: " + e);
+		}
+		
+		Map<Long, Item> resueltos = new HashMap<>();
+		futuros.forEach(futuro -> {
+			resueltos.putAll(porId(futuro.getNow(Collections.emptyList())));
+			futuro.cancel(true);
+		});
+		
+		List<Item> items = new ArrayList<>(cantidades.size());
+		for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+			Item item = resueltos.get(linea.getKey());
+			items.add(item != null ? item : alternativo(linea.getKey(), linea.getValue()));
+		}
+		return items;
+	}
+	
+	private CompletableFuture<List<Item>> buscarLote(Map<Long, Integer> trozo) {
+		try {
+			return CompletableFuture.supplyAsync(() -> itemService.findAllById(trozo), ejecutor)
+					.exceptionally(e -> {
+						Throwable causa = e instanceof CompletionException ? e.getCause() : e;
+						if (causa instanceof ProductosNoEncontradosException) {
+							// Los productos que no existen usan el alternativo, como las líneas que fallan
+							ProductosNoEncontradosException noEncontrados = (ProductosNoEncontradosException) causa;
+							log.info("Carrito por lote: " + noEncontrados.getReason());
+							return noEncontrados.getEncontrados();
+						}
+						log.info("Trozo del carrito sin resolver: " + causa);
+						return Collections.emptyList();
+					});
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(Collections.emptyList());
+		}
+	}
+	
+	private Map<Long, Item> porId(List<Item> items) {
+		return items.stream()
+				.collect(Collectors.toMap(item -> item.getProducto().getId(), Function.identity(), (a, b) -> a));
+	}
+	
+	private List<Item> enParalelo(Map<Long, Integer> cantidades) {
+		Map<Long, CompletableFuture<Item>> futuros = new LinkedHashMap<>();
+		cantidades.forEach((id, cantidad) -> futuros.put(id, buscar(id, cantidad)));
+		
+		try {
+			CompletableFuture.allOf(futuros.values().toArray(new CompletableFuture[0])).get(plazo, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			// Las líneas pendientes o con error se resuelven abajo con el alternativo
+		}
+		
+		List<Item> items = new ArrayList<>(cantidades.size());
+		futuros.forEach((id, futuro) -> {
+			Item item = futuro.isDone() && !futuro.isCompletedExceptionally() ? futuro.join() : null;
+			if (item == null || item.getProducto() == null) {
+				futuro.cancel(true);
+				item = alternativo(id, cantidades.get(id));
+			}
+			items.add(item);
+		});
+		return items;
+	}
+	
+	private CompletableFuture<Item> buscar(Long id, Integer cantidad) {
+		try {
+			return CompletableFuture.supplyAsync(() -> itemService.findById(id, cantidad), ejecutor);
+		} catch (RejectedExecutionException e) {
+			// Pool saturado: no se espera, se responde con el alternativo
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+	
+	private Item alternativo(Long id, Integer cantidad) {
+		alternativos.increment();
+		return Item.alternativo(id, cantidad);
+	}
+
+}
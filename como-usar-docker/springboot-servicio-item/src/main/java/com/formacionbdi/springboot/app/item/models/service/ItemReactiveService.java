@@ -0,0 +1,25 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.Map;
+
+import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ItemReactiveService {
+
+	public Flux<Item> listar();
+
+	public Mono<Item> detalle(Long id, Integer cantidad);
+	
+	// La clave es el id y el valor la cantidad, igual que ItemService.findAllById
+	public Flux<Item> detalles(Map<Long, Integer> cantidades);
+	
+	public Mono<Producto> crear(Producto producto);
+	
+	public Mono<Producto> editar(Producto producto, Long id);
+	
+	public Mono<Void> eliminar(Long id);
+}
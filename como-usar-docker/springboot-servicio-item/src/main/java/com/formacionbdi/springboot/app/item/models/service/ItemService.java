@@ -1,6 +1,7 @@
 package com.formacionbdi.springboot.app.item.models.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.formacionbdi.springboot.app.item.models.Item;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
@@ -11,6 +12,10 @@ public interface ItemService {
 
 	public Item findById(Long id, Integer cantidad);
 	
+	// Resuelve varios productos con el multi-get de servicio-productos; la clave es el id y el valor la cantidad.
+	// Si alguno no existe lanza ProductosNoEncontradosException con los ids que faltan.
+	public List<Item> findAllById(Map<Long, Integer> cantidades);
+	
 	public Producto save(Producto producto);
 	
 	public Producto update(Producto producto, Long id);
@@ -1,20 +1,56 @@
 package com.formacionbdi.springboot.app.item.models.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import com.formacionbdi.springboot.app.item.clientes.ProductoClienteRest;
 import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventoHandler;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service("serviceFeign")
-public class ItemServiceFeign implements ItemService {
+public class ItemServiceFeign implements ItemService, ProductoEventoHandler {
 	
 	@Autowired
 	private ProductoClienteRest clienteFeign;
+	
+	@Autowired
+	private Environment env;
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	private ProductoCollapser collapser;
+	
+	private ProductoCache cache;
+	
+	@PostConstruct
+	public void init() {
+		Function<List<Long>, List<Producto>> buscarLote = LotesIds.porLotes(clienteFeign::detalles,
+				env.getProperty("item.productos.maximo-ids", Integer.class, 100));
+		collapser = new ProductoCollapser("serviceFeign", env, registry, clienteFeign::detalle, buscarLote);
+		cache = new ProductoCache("serviceFeign", env, registry, collapser::obtener, buscarLote);
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		collapser.cerrar();
+		cache.cerrar();
+	}
 
 	@Override
 	public List<Item> findAll() {
@@ -23,7 +59,15 @@ public class ItemServiceFeign implements ItemService {
 
 	@Override
 	public Item findById(Long id, Integer cantidad) {
-		return new Item(clienteFeign.detalle(id), cantidad);
+		return new Item(cache.obtener(id), cantidad);
+	}
+
+	@Override
+	public List<Item> findAllById(Map<Long, Integer> cantidades) {
+		if (cantidades.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return ProductosNoEncontradosException.resolver(cantidades, cache.obtenerTodos(new ArrayList<>(cantidades.keySet())));
 	}
 
 	@Override
@@ -33,12 +77,21 @@ public class ItemServiceFeign implements ItemService {
 
 	@Override
 	public Producto update(Producto producto, Long id) {
-		return clienteFeign.update(producto, id);
+		Producto actualizado = clienteFeign.update(producto, id);
+		cache.invalidar(id);
+		return actualizado;
 	}
 
 	@Override
 	public void delete(Long id) {
 		clienteFeign.eliminar(id);
+		cache.invalidar(id);
+	}
+
+	// Cambios hechos en servicio-productos por cualquier cliente, no solo por este servicio
+	@Override
+	public void onProductoEvento(ProductoEvento evento) {
+		cache.invalidar(evento.getId());
 	}
 
 }
@@ -1,27 +1,62 @@
 package com.formacionbdi.springboot.app.item.models.service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventoHandler;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 import com.formacionbdi.springboot.app.item.models.Item;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service("serviceRestTemplate")
-public class ItemServiceImpl implements ItemService {
+public class ItemServiceImpl implements ItemService, ProductoEventoHandler {
 
 	@Autowired
 	private RestTemplate clienteRest;
 	
+	@Autowired
+	private Environment env;
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	private ProductoCollapser collapser;
+	
+	private ProductoCache cache;
+	
+	@PostConstruct
+	public void init() {
+		Function<List<Long>, List<Producto>> buscarLote = LotesIds.porLotes(this::buscarProductos,
+				env.getProperty("item.productos.maximo-ids", Integer.class, 100));
+		collapser = new ProductoCollapser("serviceRestTemplate", env, registry, this::buscarProducto, buscarLote);
+		cache = new ProductoCache("serviceRestTemplate", env, registry, collapser::obtener, buscarLote);
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		collapser.cerrar();
+		cache.cerrar();
+	}
+	
 	@Override
 	public List<Item> findAll() {
 		List<Producto> productos = Arrays.asList(clienteRest.getForObject("http://servicio-productos/listar", Producto[].class));
@@ -31,10 +66,27 @@ public class ItemServiceImpl implements ItemService {
 
 	@Override
 	public Item findById(Long id, Integer cantidad) {
+		return new Item(cache.obtener(id), cantidad);
+	}
+	
+	private Producto buscarProducto(Long id) {
 		Map<String, String> pathVariables = new HashMap<String, String>();
 		pathVariables.put("id", id.toString());
-		Producto producto = clienteRest.getForObject("http://servicio-productos/ver/{id}", Producto.class, pathVariables);
-		return new Item(producto, cantidad);
+		return clienteRest.getForObject("http://servicio-productos/ver/{id}", Producto.class, pathVariables);
+	}
+	
+	private List<Producto> buscarProductos(List<Long> ids) {
+		Map<String, String> pathVariables = new HashMap<String, String>();
+		pathVariables.put("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+		return Arrays.asList(clienteRest.getForObject("http://servicio-productos/ver?ids={ids}", Producto[].class, pathVariables));
+	}
+
+	@Override
+	public List<Item> findAllById(Map<Long, Integer> cantidades) {
+		if (cantidades.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return ProductosNoEncontradosException.resolver(cantidades, cache.obtenerTodos(new ArrayList<>(cantidades.keySet())));
 	}
 
 	@Override
@@ -54,6 +106,7 @@ public class ItemServiceImpl implements ItemService {
 		HttpEntity<Producto> body= new HttpEntity<Producto>(producto);
 		ResponseEntity<Producto> response = clienteRest.exchange("http://servicio-productos/editar/{id}", 
 				HttpMethod.PUT, body, Producto.class, pathVariables);
+		cache.invalidar(id);
 		
 		return response.getBody();
 	}
@@ -63,7 +116,13 @@ public class ItemServiceImpl implements ItemService {
 		Map<String, String> pathVariables = new HashMap<String, String>();
 		pathVariables.put("id", id.toString());
 		clienteRest.delete("http://servicio-productos/eliminar/{id}", pathVariables);
-		
+		cache.invalidar(id);
+	}
+
+	// Cambios hechos en servicio-productos por cualquier cliente, no solo por este servicio
+	@Override
+	public void onProductoEvento(ProductoEvento evento) {
+		cache.invalidar(evento.getId());
 	}
 
 }
@@ -0,0 +1,136 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.formacionbdi.springboot.app.item.models.Item;
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación no bloqueante sobre WebClient: las llamadas a servicio-productos no ocupan
+ * un hilo mientras esperan respuesta. Los métodos de ItemService bloquean sobre la versión
+ * reactiva y solo están para poder usarla desde el controlador clásico.
+ */
+@Service("serviceWebClient")
+public class ItemServiceWebClient implements ItemService, ItemReactiveService {
+	
+	@Autowired
+	private WebClient.Builder builder;
+	
+	@Value("${item.productos.maximo-ids:100}")
+	private int maximoIds;
+	
+	private WebClient cliente;
+	
+	@PostConstruct
+	public void init() {
+		cliente = builder.baseUrl("http://servicio-productos").build();
+	}
+
+	@Override
+	public Flux<Item> listar() {
+		return cliente.get().uri("/listar")
+				.accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToFlux(Producto.class)
+				.map(p -> new Item(p, 1));
+	}
+
+	@Override
+	public Mono<Item> detalle(Long id, Integer cantidad) {
+		return cliente.get().uri("/ver/{id}", id)
+				.accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToMono(Producto.class)
+				.map(p -> new Item(p, cantidad));
+	}
+
+	@Override
+	public Flux<Item> detalles(Map<Long, Integer> cantidades) {
+		if (cantidades.isEmpty()) {
+			return Flux.empty();
+		}
+		// Los trozos se piden a la vez y se juntan antes de comprobar que no falte ninguno
+		return Flux.fromIterable(LotesIds.partir(new ArrayList<>(cantidades.keySet()), maximoIds))
+				.flatMapSequential(this::buscarProductos)
+				.collectMap(Producto::getId)
+				.flatMapIterable(productos -> ProductosNoEncontradosException.resolver(cantidades, productos));
+	}
+	
+	private Flux<Producto> buscarProductos(List<Long> lote) {
+		String ids = lote.stream().map(String::valueOf).collect(Collectors.joining(","));
+		return cliente.get().uri("/ver?ids={ids}", ids)
+				.accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToFlux(Producto.class);
+	}
+
+	@Override
+	public Mono<Producto> crear(Producto producto) {
+		return cliente.post().uri("/crear")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(producto)
+				.retrieve()
+				.bodyToMono(Producto.class);
+	}
+
+	@Override
+	public Mono<Producto> editar(Producto producto, Long id) {
+		return cliente.put().uri("/editar/{id}", id)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(producto)
+				.retrieve()
+				.bodyToMono(Producto.class);
+	}
+
+	@Override
+	public Mono<Void> eliminar(Long id) {
+		return cliente.delete().uri("/eliminar/{id}", id)
+				.retrieve()
+				.bodyToMono(Void.class);
+	}
+
+	@Override
+	public List<Item> findAll() {
+		return listar().collectList().block();
+	}
+
+	@Override
+	public Item findById(Long id, Integer cantidad) {
+		return detalle(id, cantidad).block();
+	}
+
+	@Override
+	public List<Item> findAllById(Map<Long, Integer> cantidades) {
+		return detalles(cantidades).collectList().block();
+	}
+
+	@Override
+	public Producto save(Producto producto) {
+		return crear(producto).block();
+	}
+
+	@Override
+	public Producto update(Producto producto, Long id) {
+		return editar(producto, id).block();
+	}
+
+	@Override
+	public void delete(Long id) {
+		eliminar(id).block();
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reparte las búsquedas por ids en trozos de como máximo item.productos.maximo-ids, el límite que
+ * servicio-productos admite en /ver?ids= (productos.ver.maximo-ids).
+ */
+public final class LotesIds {
+
+	private LotesIds() {
+	}
+
+	public static List<List<Long>> partir(List<Long> ids, int tamano) {
+		List<List<Long>> lotes = new ArrayList<>((ids.size() + tamano - 1) / tamano);
+		for (int i = 0; i < ids.size(); i += tamano) {
+			lotes.add(ids.subList(i, Math.min(i + tamano, ids.size())));
+		}
+		return lotes;
+	}
+
+	public static <T> Function<List<Long>, List<T>> porLotes(Function<List<Long>, List<T>> buscar, int tamano) {
+		return ids -> {
+			if (ids.size() <= tamano) {
+				return buscar.apply(ids);
+			}
+			List<T> resultado = new ArrayList<>(ids.size());
+			partir(ids, tamano).forEach(lote -> resultado.addAll(buscar.apply(lote)));
+			return resultado;
+		};
+	}
+}
@@ -0,0 +1,109 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Near-cache de productos en memoria (Caffeine, desalojo W-TinyLFU por tamaño).
+ * Pasado refresco-segundos la entrada se recarga en segundo plano y mientras tanto se sigue
+ * sirviendo el valor anterior; pasado ttl-segundos sin recargarse se descarta. Las recargas corren en un
+ * pool propio y acotado (hilos, cola), no en el commonPool, porque bloquean esperando a servicio-productos.
+ * Los productos que no existen no se cachean: se lanza ProductosNoEncontradosException.
+ *
+ * Se configura por servicio con el prefijo item.cache.{nombre}.
+ */
+public class ProductoCache {
+
+	private final Function<Long, Producto> buscarUno;
+	private final Function<List<Long>, List<Producto>> buscarLote;
+	private LoadingCache<Long, Producto> cache;
+	private ThreadPoolExecutor ejecutor;
+
+	public ProductoCache(String nombre, Environment env, MeterRegistry registry,
+			Function<Long, Producto> buscarUno, Function<List<Long>, List<Producto>> buscarLote) {
+		String prefijo = "item.cache." + nombre + ".";
+		this.buscarUno = buscarUno;
+		this.buscarLote = buscarLote;
+
+		if (env.getProperty(prefijo + "habilitado", Boolean.class, false)) {
+			int hilos = env.getProperty(prefijo + "hilos", Integer.class, 2);
+			// Si la cola está llena Caffeine descarta esa recarga y se sigue sirviendo el valor anterior
+			ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(env.getProperty(prefijo + "cola", Integer.class, 100)),
+					new CustomizableThreadFactory("cache-" + nombre + "-"));
+			cache = Caffeine.newBuilder()
+					.executor(ejecutor)
+					.maximumSize(env.getProperty(prefijo + "tamano-maximo", Long.class, 10_000L))
+					.expireAfterWrite(Duration.ofSeconds(env.getProperty(prefijo + "ttl-segundos", Long.class, 300L)))
+					.refreshAfterWrite(Duration.ofSeconds(env.getProperty(prefijo + "refresco-segundos", Long.class, 30L)))
+					.recordStats()
+					.build(new CacheLoader<Long, Producto>() {
+						@Override
+						public Producto load(Long id) {
+							return buscarExistente(id);
+						}
+
+						@Override
+						public Map<Long, Producto> loadAll(Iterable<? extends Long> ids) {
+							return buscarPorIds(ids);
+						}
+					});
+			CaffeineCacheMetrics.monitor(registry, cache, "productos", "servicio", nombre);
+		}
+	}
+
+	public Producto obtener(Long id) {
+		return cache != null ? cache.get(id) : buscarExistente(id);
+	}
+
+	public Map<Long, Producto> obtenerTodos(List<Long> ids) {
+		return cache != null ? cache.getAll(ids) : buscarPorIds(ids);
+	}
+
+	public void invalidar(Long id) {
+		if (cache != null) {
+			cache.invalidate(id);
+		}
+	}
+
+	public void cerrar() {
+		if (ejecutor != null) {
+			ejecutor.shutdownNow();
+		}
+	}
+
+	private Producto buscarExistente(Long id) {
+		Producto producto = buscarUno.apply(id);
+		if (producto == null) {
+			throw new ProductosNoEncontradosException(Collections.singletonList(id), Collections.emptyList());
+		}
+		return producto;
+	}
+
+	private Map<Long, Producto> buscarPorIds(Iterable<? extends Long> ids) {
+		List<Long> lista = new ArrayList<>();
+		ids.forEach(lista::add);
+		return buscarLote.apply(lista).stream()
+				.collect(Collectors.toMap(Producto::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+	}
+}
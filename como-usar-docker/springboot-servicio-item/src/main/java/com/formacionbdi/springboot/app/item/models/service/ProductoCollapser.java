@@ -0,0 +1,174 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Agrupa las búsquedas concurrentes de productos por id: las que llegan dentro de una ventana corta
+ * (o hasta completar el tamaño máximo de lote) se deduplican y se resuelven con una sola llamada
+ * al multi-get de servicio-productos. Cada llamador recibe el producto de su id, o una
+ * ProductosNoEncontradosException si servicio-productos no lo devolvió. Nadie espera más de espera-maxima-ms
+ * y, si la cola de lotes está llena, el lote falla en lugar de acumularse.
+ *
+ * Se configura por servicio con el prefijo item.collapser.{nombre}.
+ */
+public class ProductoCollapser {
+
+	private final boolean habilitado;
+	private final long ventanaNanos;
+	private final int tamanoMaximo;
+	private final long esperaMaxima;
+	private final Function<Long, Producto> buscarUno;
+	private final Function<List<Long>, List<Producto>> buscarLote;
+
+	private ScheduledExecutorService temporizador;
+	private ThreadPoolExecutor ejecutor;
+	private DistributionSummary tamanoLote;
+	private Timer esperaLote;
+
+	private Lote actual;
+
+	public ProductoCollapser(String nombre, Environment env, MeterRegistry registry,
+			Function<Long, Producto> buscarUno, Function<List<Long>, List<Producto>> buscarLote) {
+		String prefijo = "item.collapser." + nombre + ".";
+		this.habilitado = env.getProperty(prefijo + "habilitado", Boolean.class, false);
+		this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(env.getProperty(prefijo + "ventana-ms", Long.class, 3L));
+		this.tamanoMaximo = env.getProperty(prefijo + "tamano-maximo", Integer.class, 50);
+		this.esperaMaxima = env.getProperty(prefijo + "espera-maxima-ms", Long.class, 5000L);
+		this.buscarUno = buscarUno;
+		this.buscarLote = buscarLote;
+
+		if (habilitado) {
+			int hilos = env.getProperty(prefijo + "hilos", Integer.class, 4);
+			this.temporizador = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("collapser-" + nombre + "-timer-"));
+			int cola = env.getProperty(prefijo + "cola", Integer.class, 100);
+			this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("collapser-" + nombre + "-"));
+			this.tamanoLote = DistributionSummary.builder("items.collapser.lote.tamano")
+					.description("Ids distintos resueltos por cada llamada agrupada")
+					.tag("servicio", nombre)
+					.register(registry);
+			this.esperaLote = Timer.builder("items.collapser.lote.espera")
+					.description("Tiempo desde la primera petición del lote hasta su despacho")
+					.tag("servicio", nombre)
+					.register(registry);
+		}
+	}
+
+	public Producto obtener(Long id) {
+		if (!habilitado) {
+			return buscarUno.apply(id);
+		}
+		CompletableFuture<Producto> futuro = encolar(id);
+		try {
+			return futuro.get(esperaMaxima, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrumpido esperando el producto " + id);
+		} catch (TimeoutException e) {
+			throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Sin respuesta para el producto " + id + " en " + esperaMaxima + " ms");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private CompletableFuture<Producto> encolar(Long id) {
+		CompletableFuture<Producto> futuro;
+		Lote completo = null;
+		synchronized (this) {
+			if (actual == null) {
+				Lote nuevo = new Lote();
+				actual = nuevo;
+				temporizador.schedule(() -> despacharPorVentana(nuevo), ventanaNanos, TimeUnit.NANOSECONDS);
+			}
+			futuro = actual.pendientes.computeIfAbsent(id, k -> new CompletableFuture<>());
+			if (actual.pendientes.size() >= tamanoMaximo) {
+				completo = actual;
+				actual = null;
+			}
+		}
+		if (completo != null) {
+			despachar(completo);
+		}
+		return futuro;
+	}
+
+	private void despacharPorVentana(Lote lote) {
+		synchronized (this) {
+			// Si ya se despachó por tamaño, este temporizador no tiene nada que hacer
+			if (actual != lote) {
+				return;
+			}
+			actual = null;
+		}
+		despachar(lote);
+	}
+
+	private void despachar(Lote lote) {
+		esperaLote.record(System.nanoTime() - lote.inicio, TimeUnit.NANOSECONDS);
+		tamanoLote.record(lote.pendientes.size());
+		try {
+			ejecutor.execute(() -> resolver(lote));
+		} catch (RejectedExecutionException e) {
+			lote.pendientes.values().forEach(futuro -> futuro.completeExceptionally(
+					new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cola de búsquedas de productos llena")));
+		}
+	}
+
+	private void resolver(Lote lote) {
+		try {
+			Map<Long, Producto> productos = buscarLote.apply(new ArrayList<>(lote.pendientes.keySet())).stream()
+					.collect(Collectors.toMap(Producto::getId, Function.identity(), (a, b) -> a));
+			lote.pendientes.forEach((id, futuro) -> {
+				Producto producto = productos.get(id);
+				if (producto != null) {
+					futuro.complete(producto);
+				} else {
+					futuro.completeExceptionally(new ProductosNoEncontradosException(Collections.singletonList(id), Collections.emptyList()));
+				}
+			});
+		} catch (RuntimeException e) {
+			lote.pendientes.values().forEach(futuro -> futuro.completeExceptionally(e));
+		}
+	}
+
+	public void cerrar() {
+		if (habilitado) {
+			temporizador.shutdownNow();
+			ejecutor.shutdown();
+		}
+	}
+
+	private static class Lote {
+		private final Map<Long, CompletableFuture<Producto>> pendientes = new LinkedHashMap<>();
+		private final long inicio = System.nanoTime();
+	}
+}
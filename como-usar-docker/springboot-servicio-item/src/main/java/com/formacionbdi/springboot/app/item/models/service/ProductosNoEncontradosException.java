@@ -0,0 +1,56 @@
+package com.formacionbdi.springboot.app.item.models.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+import com.formacionbdi.springboot.app.item.models.Item;
+
+/**
+ * Algunos de los ids pedidos no existen en servicio-productos. Lleva los ids que faltan y los items
+ * que sí se resolvieron, para que quien llama decida si le sirve una respuesta parcial.
+ */
+public class ProductosNoEncontradosException extends ResponseStatusException {
+
+	private final Collection<Long> ids;
+	private final List<Item> encontrados;
+
+	public ProductosNoEncontradosException(Collection<Long> ids, List<Item> encontrados) {
+		super(HttpStatus.NOT_FOUND, "Productos no encontrados: " + ids);
+		this.ids = ids;
+		this.encontrados = encontrados;
+	}
+
+	// Un item por id pedido, en el orden de la petición; si falta algún producto se lanza la excepción
+	public static List<Item> resolver(Map<Long, Integer> cantidades, Map<Long, Producto> productos) {
+		List<Item> items = new ArrayList<>(cantidades.size());
+		List<Long> faltan = new ArrayList<>();
+		cantidades.forEach((id, cantidad) -> {
+			Producto producto = productos.get(id);
+			if (producto != null) {
+				items.add(new Item(producto, cantidad));
+			} else {
+				faltan.add(id);
+			}
+		});
+		if (!faltan.isEmpty()) {
+			throw new ProductosNoEncontradosException(faltan, items);
+		}
+		return items;
+	}
+
+	public Collection<Long> getIds() {
+		return ids;
+	}
+
+	public List<Item> getEncontrados() {
+		return encontrados;
+	}
+
+	private static final long serialVersionUID = 2750129641387319577L;
+}
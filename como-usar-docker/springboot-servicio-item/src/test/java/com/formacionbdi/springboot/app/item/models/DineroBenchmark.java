@@ -0,0 +1,181 @@
+package com.formacionbdi.springboot.app.item.models;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.formacionbdi.springboot.app.commons.models.Dinero;
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+
+/**
+ * Compara el total de un listado grande de items con precio Double (como antes) y el Item real
+ * con Producto y Dinero: cálculo de totales y serialización a JSON del listado completo.
+ * El total se suma con Item.getTotalCentimos(), que no reserva memoria; Dinero solo se crea al serializar.
+ *
+ * Se ejecuta con el main (desde el IDE o con el classpath de test tras mvn test-compile); el perfil
+ * de GC muestra gc.alloc.rate.norm, es decir, los bytes reservados por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DineroBenchmark {
+
+	@Param({ "1000", "10000" })
+	private int productos;
+
+	private List<ItemDouble> itemsDouble;
+	private List<Item> itemsDinero;
+	private ObjectWriter writer;
+
+	@Setup
+	public void setup() {
+		itemsDouble = new ArrayList<>(productos);
+		itemsDinero = new ArrayList<>(productos);
+		for (int i = 0; i < productos; i++) {
+			// Uno de cada cuatro precios con decimales, el resto enteros como los de import.sql
+			long centimos = i % 4 == 0 ? 1999 + i : (100 + i) * 100L;
+			itemsDouble.add(new ItemDouble(new ProductoDouble((long) i, "Producto " + i, centimos / 100.0), 1 + i % 5));
+			Producto producto = new Producto();
+			producto.setId((long) i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(Dinero.deCentimos(centimos));
+			itemsDinero.add(new Item(producto, 1 + i % 5));
+		}
+		writer = new ObjectMapper().writerFor(List.class);
+	}
+
+	@Benchmark
+	public double totalDouble() {
+		double total = 0;
+		for (ItemDouble item : itemsDouble) {
+			total += item.getTotal();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long totalDinero() {
+		long total = 0;
+		for (Item item : itemsDinero) {
+			total += item.getTotalCentimos();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public void listarDouble(Blackhole bh) throws IOException {
+		writer.writeValue(new Sumidero(bh), itemsDouble);
+	}
+
+	@Benchmark
+	public void listarDinero(Blackhole bh) throws IOException {
+		writer.writeValue(new Sumidero(bh), itemsDinero);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DineroBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+	// Equivalente al Item de servicio-items antes del cambio, con la misma forma que el actual
+	public static class ItemDouble {
+		private final ProductoDouble producto;
+		private final Integer cantidad;
+
+		public ItemDouble(ProductoDouble producto, Integer cantidad) {
+			this.producto = producto;
+			this.cantidad = cantidad;
+		}
+
+		public ProductoDouble getProducto() {
+			return producto;
+		}
+
+		public Integer getCantidad() {
+			return cantidad;
+		}
+
+		public Double getTotal() {
+			return producto.getPrecio() * cantidad.doubleValue();
+		}
+	}
+
+	// Producto con el precio Double de antes; mismas propiedades JSON que Producto
+	public static class ProductoDouble {
+		private final Long id;
+		private final String nombre;
+		private final Double precio;
+
+		public ProductoDouble(Long id, String nombre, Double precio) {
+			this.id = id;
+			this.nombre = nombre;
+			this.precio = precio;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public String getNombre() {
+			return nombre;
+		}
+
+		public Double getPrecio() {
+			return precio;
+		}
+
+		public Date getCreateAt() {
+			return null;
+		}
+
+		public Integer getPort() {
+			return null;
+		}
+	}
+
+	// Descarta lo escrito sin acumularlo, para medir solo la serialización
+	private static class Sumidero extends OutputStream {
+		private final Blackhole bh;
+
+		Sumidero(Blackhole bh) {
+			this.bh = bh;
+		}
+
+		@Override
+		public void write(int b) {
+			bh.consume(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bh.consume(len);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.formacionbdi.springboot.app.oauth;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Ejecutor acotado para registrar los intentos de login fuera del camino de emisión del token.
+ * Con la cola llena se rechaza la tarea en lugar de bloquear el login.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean("intentosExecutor")
+    public ThreadPoolTaskExecutor intentosExecutor(
+            @Value("${oauth.intentos.hilos:4}") int hilos,
+            @Value("${oauth.intentos.cola:1000}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("intentos-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,96 @@
+package com.formacionbdi.springboot.app.oauth;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Pool de conexiones HTTP (Apache HttpClient 5) para los clientes Feign. Al declarar aquí el
+ * connection manager y el CloseableHttpClient, Spring Cloud OpenFeign usa estos en lugar de los suyos.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager(
+            @Value("${oauth.http.conexiones-maximas:100}") int conexionesMaximas,
+            @Value("${oauth.http.conexiones-por-ruta:50}") int conexionesPorRuta,
+            @Value("${oauth.http.ttl-segundos:300}") long ttl,
+            @Value("${oauth.http.read-timeout-ms:10000}") long readTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(conexionesMaximas)
+                .setMaxConnPerRoute(conexionesPorRuta)
+                .setConnectionTimeToLive(TimeValue.ofSeconds(ttl))
+                .build();
+        connectionManager.setValidateAfterInactivity(TimeValue.ofSeconds(2));
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(readTimeout))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient5(PoolingHttpClientConnectionManager connectionManager,
+            @Value("${oauth.http.connect-timeout-ms:2000}") long connectTimeout,
+            @Value("${oauth.http.read-timeout-ms:10000}") long readTimeout,
+            @Value("${oauth.http.espera-conexion-ms:1000}") long esperaConexion,
+            @Value("${oauth.http.inactividad-segundos:30}") long inactividad) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(esperaConexion))
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .disableCookieManagement()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(inactividad, TimeUnit.SECONDS))
+                .build();
+    }
+
+    // Mismos nombres que el binder de Micrometer para HttpClient 4, que no existe para la versión 5 en esta línea
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return registry -> {
+            Gauge.builder("httpcomponents.httpclient.pool.total.max", connectionManager, cm -> total(cm).getMax())
+                    .description("Número máximo de conexiones permitidas en el pool")
+                    .tag("httpclient", "servicio-oauth")
+                    .register(registry);
+            Gauge.builder("httpcomponents.httpclient.pool.total.connections", connectionManager, cm -> total(cm).getAvailable())
+                    .description("Conexiones libres en el pool")
+                    .tags("httpclient", "servicio-oauth", "state", "available")
+                    .register(registry);
+            Gauge.builder("httpcomponents.httpclient.pool.total.connections", connectionManager, cm -> total(cm).getLeased())
+                    .description("Conexiones en uso")
+                    .tags("httpclient", "servicio-oauth", "state", "leased")
+                    .register(registry);
+            Gauge.builder("httpcomponents.httpclient.pool.total.pending", connectionManager, cm -> total(cm).getPending())
+                    .description("Peticiones esperando una conexión")
+                    .tag("httpclient", "servicio-oauth")
+                    .register(registry);
+            Gauge.builder("httpcomponents.httpclient.pool.route.max.default", connectionManager, PoolingHttpClientConnectionManager::getDefaultMaxPerRoute)
+                    .description("Máximo de conexiones por ruta")
+                    .tag("httpclient", "servicio-oauth")
+                    .register(registry);
+        };
+    }
+
+    private static PoolStats total(PoolingHttpClientConnectionManager connectionManager) {
+        return connectionManager.getTotalStats();
+    }
+}
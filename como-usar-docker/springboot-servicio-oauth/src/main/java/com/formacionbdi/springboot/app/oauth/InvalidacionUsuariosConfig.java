@@ -0,0 +1,33 @@
+package com.formacionbdi.springboot.app.oauth;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cola anónima de cada instancia atada al exchange fanout con el que servicio-usuarios avisa de los
+ * usuarios modificados (intentos, bloqueo, password), para vaciar también la cache de usuarios del login.
+ */
+@Configuration
+public class InvalidacionUsuariosConfig {
+
+    @Bean
+    public FanoutExchange invalidacionesUsuariosExchange(@Value("${oauth.usuarios.cache.exchange:usuarios.cache.invalidaciones}") String exchange) {
+        return new FanoutExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Queue invalidacionesUsuariosQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding invalidacionesUsuariosBinding(FanoutExchange invalidacionesUsuariosExchange, Queue invalidacionesUsuariosQueue) {
+        return BindingBuilder.bind(invalidacionesUsuariosQueue).to(invalidacionesUsuariosExchange);
+    }
+}
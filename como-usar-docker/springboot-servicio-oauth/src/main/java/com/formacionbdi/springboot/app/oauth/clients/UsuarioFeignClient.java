@@ -1,14 +1,21 @@
 package com.formacionbdi.springboot.app.oauth.clients;
 
-import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
 @FeignClient(name = "servicio-usuarios")
 public interface UsuarioFeignClient {
-    @GetMapping("/usuarios/search/buscar-username")
-    public Usuario findByUsername(@RequestParam String username);
+    @GetMapping("/autenticacion/usuario/{username}")
+    public UsuarioAutenticacion findByUsername(@PathVariable String username);
 
-    @PutMapping("/usuarios/{id}")
-    public Usuario update(@RequestBody Usuario usuario, @PathVariable Long id);
+    @PostMapping("/autenticacion/incrementar-intentos/{username}")
+    public IntentosLogin incrementarIntentos(@PathVariable String username);
+
+    @PostMapping("/autenticacion/reiniciar-intentos/{username}")
+    public IntentosLogin reiniciarIntentos(@PathVariable String username);
+
+    @PutMapping("/autenticacion/password/{username}")
+    public void cambiarPassword(@PathVariable String username, @RequestBody String password);
 }
@@ -0,0 +1,34 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import com.formacionbdi.springboot.app.oauth.services.IUsuarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guarda en servicio-usuarios el hash regenerado con el coste actual. El envío es asíncrono para no
+ * alargar el login; si no se puede, se vuelve a intentar en el siguiente login del usuario.
+ */
+@Component
+public class ActualizadorPasswords implements UserDetailsPasswordService {
+
+    private Logger log = LoggerFactory.getLogger(ActualizadorPasswords.class);
+
+    @Autowired
+    private IUsuarioService usuarioService;
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            usuarioService.cambiarPassword(user.getUsername(), newPassword);
+        } catch (TaskRejectedException e) {
+            log.warn("No se pudo encolar el cambio de hash de " + user.getUsername() + ": " + e.getMessage());
+        }
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+}
@@ -37,6 +37,9 @@ public class AuthorizationConfigServer extends AuthorizationServerConfigurerAdap
     @Autowired
     public InfoAdicionalToken infoAdicionalToken;
 
+    @Autowired
+    public LlavesJwt llavesJwt;
+
 
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
@@ -71,13 +74,18 @@ public class AuthorizationConfigServer extends AuthorizationServerConfigurerAdap
         endpoints.authenticationManager(authenticationManager)
                 .tokenStore(tokenStorage())
                 .accessTokenConverter(accessTokenConverter())
-                .tokenEnhancer(tokenWithAditionalInfo);
+                .tokenEnhancer(tokenWithAditionalInfo)
+                .exceptionTranslator(new TraductorExcepcionesOAuth());
     }
 
     @Bean
     public JwtAccessTokenConverter accessTokenConverter() {
-        JwtAccessTokenConverter tokenConverter = new JwtAccessTokenConverter();
-        tokenConverter.setSigningKey(Base64.getEncoder().encodeToString(env.getProperty("config.security.oauth.client.jwt").getBytes()));
+        JwtAccessTokenConverter tokenConverter = new JwtKidAccessTokenConverter(llavesJwt);
+        // El secreto HMAC queda para los tokens sin kid emitidos antes de configurar las llaves RSA
+        String secreto = env.getProperty("config.security.oauth.client.jwt");
+        if (secreto != null) {
+            tokenConverter.setSigningKey(Base64.getEncoder().encodeToString(secreto.getBytes()));
+        }
         return tokenConverter;
     }
 
@@ -1,6 +1,6 @@
 package com.formacionbdi.springboot.app.oauth.security;
 
-import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
 import com.formacionbdi.springboot.app.oauth.services.IUsuarioService;
 import com.formacionbdi.springboot.app.oauth.services.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +22,7 @@ public class InfoAdicionalToken implements TokenEnhancer {
     @Override
     public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
         Map<String, Object> info = new HashMap<>();
-        Usuario usuario = usuarioService.findByUsername(authentication.getName());
+        UsuarioAutenticacion usuario = usuarioService.findByUsername(authentication.getName());
         info.put("nombre", usuario.getNombre());
         info.put("apellido", usuario.getApellido());
         info.put("correo", usuario.getEmail());
@@ -0,0 +1,58 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Publica las llaves públicas de firma (RFC 7517) para que el gateway y zuul verifiquen los tokens
+ * localmente, sin compartir el secreto HMAC.
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private LlavesJwt llaves;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        List<Map<String, Object>> keys = llaves.todas().stream()
+                .map(this::jwk)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Collections.singletonMap("keys", keys));
+    }
+
+    private Map<String, Object> jwk(LlavesJwt.Llave llave) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("kid", llave.getKid());
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("n", base64Url(llave.getPublica().getModulus()));
+        jwk.put("e", base64Url(llave.getPublica().getPublicExponent()));
+        return jwk;
+    }
+
+    // Entero sin signo en big-endian, sin el byte de signo que agrega BigInteger
+    private static String base64Url(BigInteger valor) {
+        byte[] bytes = valor.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
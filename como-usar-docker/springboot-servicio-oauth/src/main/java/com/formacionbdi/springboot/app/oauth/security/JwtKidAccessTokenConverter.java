@@ -0,0 +1,70 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Firma con la llave RSA activa y pone su kid en la cabecera del JWT; al leer un token elige la llave
+ * por el kid. Sin llaves RSA configuradas, o para tokens sin kid, se comporta como el converter HMAC.
+ */
+public class JwtKidAccessTokenConverter extends JwtAccessTokenConverter {
+
+    private final LlavesJwt llaves;
+    private final JsonParser jsonParser = JsonParserFactory.create();
+
+    public JwtKidAccessTokenConverter(LlavesJwt llaves) {
+        this.llaves = llaves;
+    }
+
+    @Override
+    protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        LlavesJwt.Llave activa = llaves.activa();
+        if (activa == null) {
+            return super.encode(accessToken, authentication);
+        }
+        String contenido;
+        try {
+            contenido = jsonParser.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot convert access token to JSON", e);
+        }
+        return JwtHelper.encode(contenido, activa.getSigner(), Collections.singletonMap("kid", activa.getKid())).getEncoded();
+    }
+
+    @Override
+    protected Map<String, Object> decode(String token) {
+        String kid;
+        try {
+            kid = JwtHelper.headers(token).get("kid");
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+        if (kid == null) {
+            return super.decode(token);
+        }
+        LlavesJwt.Llave llave = llaves.porKid(kid);
+        if (llave == null) {
+            throw new InvalidTokenException("Llave desconocida: " + kid);
+        }
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(token, llave.getVerifier());
+            Map<String, Object> claims = jsonParser.parseMap(jwt.getClaims());
+            if (claims.get(AccessTokenConverter.EXP) instanceof Integer) {
+                claims.put(AccessTokenConverter.EXP, ((Integer) claims.get(AccessTokenConverter.EXP)).longValue());
+            }
+            return claims;
+        } catch (Exception e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt en un pool de tantos hilos como núcleos y una cola acotada, para que una avalancha de logins
+ * no ocupe todos los hilos de Tomcat con CPU. Con la cola llena, o si la espera pasa de espera-maxima-ms,
+ * se responde 503 con Retry-After en lugar de encolar más trabajo.
+ *
+ * upgradeEncoding indica si el hash guardado tiene un coste distinto del configurado, para que
+ * ProveedorAutenticacion lo vuelva a generar en segundo plano tras un login correcto.
+ *
+ * Se configura con el prefijo oauth.bcrypt.
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder {
+
+    private static final Pattern COSTE = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int coste;
+    private final long esperaMaxima;
+    private final long retryAfter;
+    private final BlockingQueue<Runnable> cola;
+    private final ThreadPoolExecutor ejecutor;
+    private final Timer verificar;
+    private final Timer codificar;
+    private final Timer espera;
+    private final Counter rechazos;
+
+    public PasswordEncoderAcotado(Environment env, MeterRegistry registry) {
+        this.coste = env.getProperty("oauth.bcrypt.coste", Integer.class, 10);
+        this.esperaMaxima = env.getProperty("oauth.bcrypt.espera-maxima-ms", Long.class, 2000L);
+        this.retryAfter = env.getProperty("oauth.bcrypt.retry-after-segundos", Long.class, 1L);
+        this.bcrypt = new BCryptPasswordEncoder(coste);
+
+        int hilos = env.getProperty("oauth.bcrypt.hilos", Integer.class, Runtime.getRuntime().availableProcessors());
+        CustomizableThreadFactory hilosBcrypt = new CustomizableThreadFactory("bcrypt-");
+        hilosBcrypt.setDaemon(true);
+        this.cola = new ArrayBlockingQueue<>(env.getProperty("oauth.bcrypt.cola", Integer.class, 64));
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, cola, hilosBcrypt, new ThreadPoolExecutor.AbortPolicy());
+
+        this.verificar = tiempo(registry, "verificar");
+        this.codificar = tiempo(registry, "codificar");
+        this.espera = Timer.builder("oauth.bcrypt.espera")
+                .description("Tiempo en cola antes de empezar a calcular el hash")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.rechazos = Counter.builder("oauth.bcrypt.rechazos")
+                .description("Hashes rechazados por cola llena o espera excesiva (503)")
+                .register(registry);
+        Gauge.builder("oauth.bcrypt.cola", cola, BlockingQueue::size)
+                .description("Hashes esperando un hilo libre")
+                .register(registry);
+        Gauge.builder("oauth.bcrypt.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos calculando un hash")
+                .register(registry);
+    }
+
+    private static Timer tiempo(MeterRegistry registry, String operacion) {
+        return Timer.builder("oauth.bcrypt.tiempo")
+                .description("Tiempo de CPU de BCrypt por operación")
+                .tag("operacion", operacion)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> codificar.recordCallable(() -> bcrypt.encode(rawPassword)));
+    }
+
+    /**
+     * Hash sin esperar al resultado y sin 503: con la cola llena el futuro falla y el llamador lo deja pasar.
+     */
+    public CompletableFuture<String> codificarEnSegundoPlano(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> codificar.record(() -> bcrypt.encode(rawPassword)), ejecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<String> rechazado = new CompletableFuture<>();
+            rechazado.completeExceptionally(e);
+            return rechazado;
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> verificar.recordCallable(() -> bcrypt.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = COSTE.matcher(encodedPassword);
+        // Con la cola ocupada no se gasta un hash extra en migrar el coste; se hará en otro login
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != coste && cola.isEmpty();
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        long encolado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = ejecutor.submit(() -> {
+                espera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return tarea.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new ServicioSaturadoException(retryAfter);
+        }
+        try {
+            return futuro.get(esperaMaxima, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazos.increment();
+            throw new ServicioSaturadoException(retryAfter);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException(retryAfter);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * DaoAuthenticationProvider que regenera los hashes con coste antiguo en segundo plano. La clase padre
+ * lo hace en el hilo del login después de verificar la contraseña, y con el pool de BCrypt lleno eso
+ * convertía un login correcto en un 503; aquí, si no hay sitio, se deja para el siguiente login.
+ */
+public class ProveedorAutenticacion extends DaoAuthenticationProvider {
+
+    private Logger log = LoggerFactory.getLogger(ProveedorAutenticacion.class);
+
+    private final PasswordEncoderAcotado encoder;
+    private final UserDetailsPasswordService actualizador;
+
+    // No se llama a setUserDetailsPasswordService para que la clase padre no regenere el hash por su cuenta
+    public ProveedorAutenticacion(UserDetailsService userDetailsService, PasswordEncoderAcotado encoder, UserDetailsPasswordService actualizador) {
+        this.encoder = encoder;
+        this.actualizador = actualizador;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(encoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (authentication.getCredentials() != null && encoder.upgradeEncoding(user.getPassword())) {
+            // Se copia antes de que ProviderManager borre las credenciales del token
+            String password = authentication.getCredentials().toString();
+            encoder.codificarEnSegundoPlano(password).whenComplete((hash, e) -> {
+                if (hash != null) {
+                    actualizador.updatePassword(user, hash);
+                } else {
+                    log.debug("Sin capacidad para regenerar el hash de " + user.getUsername() + ", se reintentará en otro login");
+                }
+            });
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,31 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+/**
+ * No hay capacidad para calcular el hash de la contraseña ahora mismo. Se traduce a 503 con Retry-After
+ * y no cuenta como intento fallido de login.
+ */
+public class ServicioSaturadoException extends OAuth2Exception {
+
+    private final long retryAfter;
+
+    public ServicioSaturadoException(long retryAfter) {
+        super("Servicio saturado, reintente en " + retryAfter + " segundos");
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return 503;
+    }
+}
@@ -1,8 +1,10 @@
 package com.formacionbdi.springboot.app.oauth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -18,11 +20,19 @@ public class SpringSecurityConfig {
     @Autowired
     private AuthenticationEventPublisher eventPublisher;
 
+    @Autowired
+    private ActualizadorPasswords actualizadorPasswords;
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Las contraseñas de usuarios se verifican en el pool acotado de BCrypt; el secreto del cliente sigue con passwordEncoder()
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationManagerBuilder auth) throws Exception {
-        return auth.userDetailsService(this.usuarioService)
-                    .passwordEncoder(passwordEncoder())
-                    .and()
+        return auth.authenticationProvider(new ProveedorAutenticacion(this.usuarioService, new PasswordEncoderAcotado(env, registry), actualizadorPasswords))
                     .authenticationEventPublisher(eventPublisher)
                     .build();
     }
@@ -0,0 +1,24 @@
+package com.formacionbdi.springboot.app.oauth.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+
+/**
+ * Igual que el traductor por defecto, pero agrega Retry-After cuando el hash de la contraseña se rechazó por saturación.
+ */
+public class TraductorExcepcionesOAuth extends DefaultWebResponseExceptionTranslator {
+
+    @Override
+    public ResponseEntity<OAuth2Exception> translate(Exception e) throws Exception {
+        ResponseEntity<OAuth2Exception> respuesta = super.translate(e);
+        if (!(respuesta.getBody() instanceof ServicioSaturadoException)) {
+            return respuesta;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(respuesta.getHeaders());
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(((ServicioSaturadoException) respuesta.getBody()).getRetryAfter()));
+        return new ResponseEntity<>(respuesta.getBody(), headers, respuesta.getStatusCode());
+    }
+}
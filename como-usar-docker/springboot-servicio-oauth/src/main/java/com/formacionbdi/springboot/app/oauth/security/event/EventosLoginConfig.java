@@ -0,0 +1,25 @@
+package com.formacionbdi.springboot.app.oauth.security.event;
+
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exchange de eventos de login; la cola la declara servicio-usuarios.
+ */
+@Configuration
+public class EventosLoginConfig {
+
+    @Bean
+    public FanoutExchange eventosLoginExchange(@Value("${oauth.eventos-login.exchange:auth.eventos-login}") String exchange) {
+        return new FanoutExchange(exchange, true, false);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
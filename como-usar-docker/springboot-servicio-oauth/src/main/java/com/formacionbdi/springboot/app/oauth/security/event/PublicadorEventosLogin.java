@@ -0,0 +1,146 @@
+package com.formacionbdi.springboot.app.oauth.security.event;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.EventoLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.LoteEventosLogin;
+import com.formacionbdi.springboot.app.oauth.services.IUsuarioService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acumula los eventos de login en memoria y los publica en lotes al exchange de RabbitMQ
+ * que consume servicio-usuarios. El hilo del login solo encola; el envío se hace cada intervalo-ms
+ * o en cuanto se junta un lote completo. Si RabbitMQ no acepta el lote, cada evento se manda
+ * por Feign de forma asíncrona.
+ */
+@Component
+public class PublicadorEventosLogin {
+
+    private Logger log = LoggerFactory.getLogger(PublicadorEventosLogin.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private IUsuarioService usuarioService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${oauth.eventos-login.exchange:auth.eventos-login}")
+    private String exchange;
+
+    @Value("${oauth.eventos-login.tamano-lote:200}")
+    private int tamanoLote;
+
+    @Value("${oauth.eventos-login.intervalo-ms:200}")
+    private long intervalo;
+
+    @Value("${oauth.eventos-login.capacidad:10000}")
+    private int capacidad;
+
+    private BlockingQueue<EventoLogin> pendientes;
+    private ScheduledExecutorService ejecutor;
+    private Counter publicados;
+    private Counter alternativos;
+    private Counter descartados;
+
+    @PostConstruct
+    public void init() {
+        pendientes = new ArrayBlockingQueue<>(capacidad);
+        ejecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("eventos-login-"));
+        ejecutor.scheduleWithFixedDelay(this::vaciar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        publicados = contador("publicado");
+        alternativos = contador("feign");
+        descartados = contador("descartado");
+        Gauge.builder("oauth.eventos-login.pendientes", pendientes, BlockingQueue::size)
+                .description("Eventos de login a la espera de publicarse")
+                .register(registry);
+    }
+
+    private Counter contador(String resultado) {
+        return Counter.builder("oauth.eventos-login")
+                .description("Eventos de login por forma de entrega")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    public void publicar(String username, boolean exito) {
+        // Un fallo puede bloquear la cuenta: el siguiente intento vuelve a leer el usuario. Un acierto no se
+        // invalida aquí porque InfoAdicionalToken aún va a leer el usuario de la cache; si reinicia intentos,
+        // servicio-usuarios avisa por usuarios.cache.invalidaciones al aplicar el lote
+        if (!exito) {
+            usuarioService.invalidar(username);
+        }
+        EventoLogin evento = new EventoLogin(username, exito, System.currentTimeMillis());
+        if (!pendientes.offer(evento)) {
+            enviarPorFeign(evento);
+            return;
+        }
+        if (pendientes.size() >= tamanoLote) {
+            try {
+                ejecutor.execute(this::vaciar);
+            } catch (RuntimeException e) {
+                // Apagándose: el vaciado final de cerrar() se encarga
+            }
+        }
+    }
+
+    private synchronized void vaciar() {
+        List<EventoLogin> lote = new ArrayList<>(tamanoLote);
+        while (pendientes.drainTo(lote, tamanoLote) > 0) {
+            try {
+                rabbitTemplate.convertAndSend(exchange, "", new LoteEventosLogin(lote));
+                publicados.increment(lote.size());
+            } catch (AmqpException e) {
+                log.warn("No se pudo publicar el lote de " + lote.size() + " eventos de login, se envían por Feign: " + e.getMessage());
+                lote.forEach(this::enviarPorFeign);
+            }
+            lote = new ArrayList<>(tamanoLote);
+        }
+    }
+
+    private void enviarPorFeign(EventoLogin evento) {
+        try {
+            if (evento.isExito()) {
+                usuarioService.reiniciarIntentos(evento.getUsername());
+            } else {
+                usuarioService.incrementarIntentos(evento.getUsername());
+            }
+            alternativos.increment();
+        } catch (TaskRejectedException e) {
+            descartados.increment();
+            log.warn("Cola de intentos de login llena, se descarta el evento de " + evento.getUsername());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciar();
+    }
+}
@@ -1,8 +1,14 @@
 package com.formacionbdi.springboot.app.oauth.services;
 
-import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface IUsuarioService {
-    public Usuario findByUsername(String username);
-    public Usuario update(Usuario usuario, Long id);
+    public UsuarioAutenticacion findByUsername(String username);
+    public CompletableFuture<IntentosLogin> incrementarIntentos(String username);
+    public CompletableFuture<IntentosLogin> reiniciarIntentos(String username);
+    public CompletableFuture<Void> cambiarPassword(String username, String password);
+    public void invalidar(String username);
 }
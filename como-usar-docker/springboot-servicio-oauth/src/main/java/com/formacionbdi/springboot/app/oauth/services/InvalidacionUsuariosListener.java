@@ -0,0 +1,54 @@
+package com.formacionbdi.springboot.app.oauth.services;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saca de la cache el usuario que servicio-usuarios acaba de modificar, así un bloqueo por intentos
+ * fallidos se aplica en el siguiente login y no al vencer el TTL.
+ */
+@Component
+public class InvalidacionUsuariosListener {
+
+    @Autowired
+    private IUsuarioService usuarioService;
+
+    // El tipo del parámetro decide la conversión del JSON; la cabecera __TypeId__ trae la clase de servicio-usuarios
+    @RabbitListener(queues = "#{invalidacionesUsuariosQueue.name}")
+    public void recibir(Invalidacion invalidacion) {
+        if (invalidacion.getUsername() != null) {
+            usuarioService.invalidar(invalidacion.getUsername());
+        }
+    }
+
+    public static class Invalidacion {
+        private Long id;
+        private String username;
+        private String origen;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getOrigen() {
+            return origen;
+        }
+
+        public void setOrigen(String origen) {
+            this.origen = origen;
+        }
+    }
+}
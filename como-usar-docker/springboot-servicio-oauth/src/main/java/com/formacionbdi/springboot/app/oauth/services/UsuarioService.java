@@ -1,12 +1,19 @@
 package com.formacionbdi.springboot.app.oauth.services;
 
 import brave.Tracer;
-import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
 import com.formacionbdi.springboot.app.oauth.clients.UsuarioFeignClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -15,7 +22,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +41,29 @@ public class UsuarioService implements UserDetailsService, IUsuarioService {
     @Autowired
     private Tracer tracer;
 
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${oauth.usuarios.cache.ttl-segundos:5}")
+    private long ttl;
+
+    @Value("${oauth.usuarios.cache.tamano-maximo:10000}")
+    private long tamanoMaximo;
+
+    // Un login pide el usuario en loadUserByUsername, InfoAdicionalToken y AuthenticationSuccessErrorHandler;
+    // con un TTL corto las tres lecturas se resuelven con una sola llamada a servicio-usuarios
+    private Cache<String, UsuarioAutenticacion> usuarios;
+
+    @PostConstruct
+    public void init() {
+        usuarios = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, usuarios, "usuarios");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
@@ -45,29 +79,29 @@ public class UsuarioService implements UserDetailsService, IUsuarioService {
     }
 
     private User generatedUser(String username){
-        Usuario usuario = client.findByUsername(username);
+        UsuarioAutenticacion usuario = findByUsername(username);
         validateUserPersonalized(usuario);
         List<GrantedAuthority> authorities = getAndTransformAuthorities(usuario);
         log.info("Usuario autenticado:" + username);
         return createSpringUserWithAuthorities(usuario, authorities);
     }
 
-    private void validateUserPersonalized(Usuario usuario) {
+    private void validateUserPersonalized(UsuarioAutenticacion usuario) {
         if (usuario == null) {
             log.error("Error en el login, no existe el usuario '" + usuario.getUsername() + "' en el sistema");
             throw new UsernameNotFoundException("Error en el login, no existe el usuario '" + usuario.getUsername() + "' en el sistema");
         }
     }
 
-    private List<GrantedAuthority> getAndTransformAuthorities(Usuario usuario){
+    private List<GrantedAuthority> getAndTransformAuthorities(UsuarioAutenticacion usuario){
         return usuario.getRoles()
                         .stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getNombre()))
+                        .map(SimpleGrantedAuthority::new)
                         .peek(authority -> log.info("Role: " + authority.getAuthority()))
                         .collect(Collectors.toList());
     }
 
-    private User createSpringUserWithAuthorities(Usuario usuario, List<GrantedAuthority> authorities) {
+    private User createSpringUserWithAuthorities(UsuarioAutenticacion usuario, List<GrantedAuthority> authorities) {
         return new User(
                 usuario.getUsername(),
                 usuario.getPassword(),
@@ -80,12 +114,53 @@ public class UsuarioService implements UserDetailsService, IUsuarioService {
     }
 
     @Override
-    public Usuario findByUsername(String username) {
-        return client.findByUsername(username);
+    public UsuarioAutenticacion findByUsername(String username) {
+        return usuarios.get(username, client::findByUsername);
+    }
+
+    @Override
+    @Async("intentosExecutor")
+    public CompletableFuture<IntentosLogin> incrementarIntentos(String username) {
+        return registrarIntentos(username, client::incrementarIntentos);
+    }
+
+    @Override
+    @Async("intentosExecutor")
+    public CompletableFuture<IntentosLogin> reiniciarIntentos(String username) {
+        return registrarIntentos(username, client::reiniciarIntentos);
+    }
+
+    @Override
+    @Async("intentosExecutor")
+    public CompletableFuture<Void> cambiarPassword(String username, String password) {
+        try {
+            client.cambiarPassword(username, password);
+            usuarios.invalidate(username);
+            return CompletableFuture.completedFuture(null);
+        } catch (FeignException e) {
+            log.error("Error al guardar el nuevo hash de '" + username + "': " + e.getMessage());
+            CompletableFuture<Void> fallido = new CompletableFuture<>();
+            fallido.completeExceptionally(e);
+            return fallido;
+        }
     }
 
     @Override
-    public Usuario update(Usuario usuario, Long id) {
-        return client.update(usuario, id);
+    public void invalidar(String username) {
+        usuarios.invalidate(username);
+    }
+
+    private CompletableFuture<IntentosLogin> registrarIntentos(String username, Function<String, IntentosLogin> operacion) {
+        try {
+            IntentosLogin intentos = operacion.apply(username);
+            // El usuario en cache ya no refleja intentos ni enabled
+            usuarios.invalidate(username);
+            return CompletableFuture.completedFuture(intentos);
+        } catch (FeignException e) {
+            log.error("Error al registrar los intentos de login de '" + username + "': " + e.getMessage());
+            CompletableFuture<IntentosLogin> fallido = new CompletableFuture<>();
+            fallido.completeExceptionally(e);
+            return fallido;
+        }
     }
 }
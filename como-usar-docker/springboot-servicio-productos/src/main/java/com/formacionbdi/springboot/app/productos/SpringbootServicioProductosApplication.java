@@ -4,10 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.context.annotation.Import;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventosConfig;
 
 @EnableEurekaClient
 @SpringBootApplication
-@EntityScan({"com.formacionbdi.springboot.app.commons.models.entity"})
+@EntityScan({"com.formacionbdi.springboot.app.commons.models.entity", "com.formacionbdi.springboot.app.productos.models.entity"})
+@Import(ProductoEventosConfig.class)
 public class SpringbootServicioProductosApplication {
 
 	public static void main(String[] args) {
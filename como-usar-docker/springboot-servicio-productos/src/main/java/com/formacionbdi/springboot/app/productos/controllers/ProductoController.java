@@ -1,11 +1,15 @@
 package com.formacionbdi.springboot.app.productos.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.core.env.Environment;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,9 +17,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 import com.formacionbdi.springboot.app.productos.models.service.IProductoService;
 
@@ -28,22 +39,64 @@ public class ProductoController {
 	@Value("${server.port}")
 	private Integer port;
 	
+	@Value("${productos.listar.limite-maximo:1000}")
+	private Integer limiteMaximo;
+	
+	@Value("${productos.ver.maximo-ids:100}")
+	private Integer maximoIds;
+	
 	@Autowired
 	private IProductoService productoService;
 	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	// Sin parámetros se mantiene el listado completo para los clientes existentes.
+	// Con after/limit se pagina por cursor: el siguiente after es el id del último producto recibido.
 	@GetMapping("/listar")
-	public List<Producto> listar(){
-		return productoService.findAll().stream().map(producto ->{
-			producto.setPort(Integer.parseInt(env.getProperty("local.server.port")));
+	public List<Producto> listar(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit){
+		Integer puerto = puertoLocal();
+		List<Producto> productos = (after == null && limit == null)
+				? productoService.findAll()
+				: productoService.findAllAfter(after != null ? after : 0L, limiteValido(limit));
+		
+		return productos.stream().map(producto ->{
+			producto.setPort(puerto);
 			//producto.setPort(port);
 			return producto;
 		}).collect(Collectors.toList());
 	}
 	
+	// Variante NDJSON: un producto por línea, escrito con el generador de Jackson a medida que se lee de la BD,
+	// por lo que la memoria usada no depende del tamaño de la tabla.
+	@GetMapping(value = "/listar/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> listarStream(){
+		Integer puerto = puertoLocal();
+		ObjectWriter writer = objectMapper.writerFor(Producto.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.setRootValueSeparator(null);
+				productoService.streamAll(producto -> {
+					producto.setPort(puerto);
+					try {
+						writer.writeValue(generator, producto);
+						generator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
 	@GetMapping("/ver/{id}")
 	public Producto detalle(@PathVariable Long id) {
 		Producto producto = productoService.findById(id);
-		producto.setPort(Integer.parseInt(env.getProperty("local.server.port")));
+		producto.setPort(puertoLocal());
 		//producto.setPort(port);
 		
 		/*
@@ -57,6 +110,19 @@ public class ProductoController {
 		return producto;
 	}
 	
+	// Multi-get: /ver?ids=1,2,3 resuelve varios productos con una sola consulta IN y un solo viaje HTTP.
+	// Los ids inexistentes se omiten y el orden de la respuesta es el de la petición.
+	@GetMapping("/ver")
+	public List<Producto> detalles(@RequestParam List<Long> ids) {
+		if (ids.size() > maximoIds) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Se permiten como máximo " + maximoIds + " ids por petición");
+		}
+		Integer puerto = puertoLocal();
+		List<Producto> productos = productoService.findAllById(ids);
+		productos.forEach(producto -> producto.setPort(puerto));
+		return productos;
+	}
+	
 	@PostMapping("/crear")
 	@ResponseStatus(HttpStatus.CREATED)
 	public Producto crear(@RequestBody Producto producto) {
@@ -81,5 +147,15 @@ public class ProductoController {
 		productoService.deleteById(id);
 	}
 	
+	private Integer puertoLocal() {
+		return Integer.parseInt(env.getProperty("local.server.port"));
+	}
+	
+	private int limiteValido(Integer limit) {
+		if (limit == null || limit <= 0) {
+			return limiteMaximo;
+		}
+		return Math.min(limit, limiteMaximo);
+	}
 
 }
@@ -0,0 +1,29 @@
+package com.formacionbdi.springboot.app.productos.eventos;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventoHandler;
+import com.formacionbdi.springboot.app.commons.models.entity.Producto;
+
+/**
+ * Quita de la cache de segundo nivel de esta instancia el producto que cambió en otra. En la instancia
+ * que hizo el cambio Hibernate ya la actualizó, y volver a quitarlo solo cuesta una lectura.
+ */
+@Component
+public class CacheProductosHandler implements ProductoEventoHandler {
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@Override
+	public void onProductoEvento(ProductoEvento evento) {
+		emf.getCache().evict(Producto.class, evento.getId());
+		// Las páginas del listado cacheadas pueden incluir el producto
+		emf.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+	}
+}
@@ -0,0 +1,171 @@
+package com.formacionbdi.springboot.app.productos.eventos;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEventosConfig;
+import com.formacionbdi.springboot.app.productos.models.dao.ProductoEventoOutboxDao;
+import com.formacionbdi.springboot.app.productos.models.entity.ProductoEventoOutbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publica en RabbitMQ los eventos de la tabla productos_outbox. Cada intervalo-ms reclama un lote en orden
+ * de id en una transacción corta, lo envía por un solo canal y espera la confirmación del broker fuera de
+ * cualquier transacción, y después borra las filas en otra transacción corta; así los INSERT del outbox
+ * nunca esperan a RabbitMQ. Si el broker falla el reclamo se libera para el siguiente intento, y si la
+ * instancia cae a mitad de envío las filas se vuelven a tomar al vencer reclamo-ms, por lo que un evento
+ * puede llegar más de una vez pero nunca se pierde; los consumidores solo invalidan caches.
+ */
+@Component
+public class RelayProductoEventos {
+
+	private static final Logger log = LoggerFactory.getLogger(RelayProductoEventos.class);
+
+	@Autowired
+	private ProductoEventoOutboxDao outboxDao;
+
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Value("${productos.eventos.exchange:productos.eventos}")
+	private String exchange;
+
+	@Value("${productos.outbox.tamano-lote:100}")
+	private int tamanoLote;
+
+	@Value("${productos.outbox.intervalo-ms:200}")
+	private long intervalo;
+
+	@Value("${productos.outbox.confirmacion-ms:5000}")
+	private long confirmacion;
+
+	// Debe superar con margen a confirmacion-ms para que otro relay no tome un lote que aún se está enviando
+	@Value("${productos.outbox.reclamo-ms:30000}")
+	private long reclamo;
+
+	private TransactionTemplate transaccion;
+	private ScheduledExecutorService ejecutor;
+	private final AtomicLong antiguedad = new AtomicLong();
+	private Timer retraso;
+	private Counter publicados;
+	private Counter fallos;
+
+	@PostConstruct
+	public void init() {
+		transaccion = new TransactionTemplate(transactionManager);
+		retraso = Timer.builder("productos.outbox.retraso")
+				.description("Tiempo desde el commit del cambio hasta que el broker confirma su evento")
+				.register(registry);
+		publicados = Counter.builder("productos.outbox.publicados")
+				.description("Eventos de productos confirmados por el broker")
+				.register(registry);
+		fallos = Counter.builder("productos.outbox.fallos")
+				.description("Lotes que no se pudieron publicar y se reintentarán")
+				.register(registry);
+		Gauge.builder("productos.outbox.antiguedad", antiguedad, AtomicLong::get)
+				.description("Antigüedad en milisegundos del evento pendiente más viejo")
+				.register(registry);
+		ejecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("relay-productos-"));
+		ejecutor.scheduleWithFixedDelay(this::vaciar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+	}
+
+	private void vaciar() {
+		try {
+			int enviados;
+			do {
+				enviados = publicarLote();
+			} while (enviados == tamanoLote);
+		} catch (RuntimeException e) {
+			fallos.increment();
+			log.warn("No se pudo publicar el lote de eventos de productos, se reintentará: " + e.getMessage());
+		}
+		try {
+			Date masAntiguo = outboxDao.findCreateAtMasAntiguo();
+			antiguedad.set(masAntiguo != null ? System.currentTimeMillis() - masAntiguo.getTime() : 0L);
+		} catch (RuntimeException e) {
+			log.warn("No se pudo medir la antigüedad del outbox de productos: " + e.getMessage());
+		}
+	}
+
+	private int publicarLote() {
+		List<ProductoEventoOutbox> lote = transaccion.execute(estado -> reclamar());
+		if (lote == null || lote.isEmpty()) {
+			return 0;
+		}
+		List<Long> ids = lote.stream().map(ProductoEventoOutbox::getId).collect(Collectors.toList());
+		try {
+			rabbitTemplate.invoke(operaciones -> {
+				lote.forEach(pendiente -> operaciones.send(exchange, "", ProductoEventosConfig.mensaje(pendiente.toEvento())));
+				operaciones.waitForConfirmsOrDie(confirmacion);
+				return null;
+			});
+		} catch (RuntimeException e) {
+			liberar(ids);
+			throw e;
+		}
+		// Si falla el borrado el lote se vuelve a publicar al vencer el reclamo
+		transaccion.execute(estado -> outboxDao.deleteByIds(ids));
+
+		long ahora = System.currentTimeMillis();
+		lote.forEach(pendiente -> retraso.record(ahora - pendiente.getCreateAt().getTime(), TimeUnit.MILLISECONDS));
+		publicados.increment(lote.size());
+		return lote.size();
+	}
+
+	private List<ProductoEventoOutbox> reclamar() {
+		long ahora = System.currentTimeMillis();
+		List<ProductoEventoOutbox> lote = outboxDao.findPendientes(new Date(ahora), PageRequest.of(0, tamanoLote));
+		if (!lote.isEmpty()) {
+			outboxDao.reclamar(lote.stream().map(ProductoEventoOutbox::getId).collect(Collectors.toList()), new Date(ahora + reclamo));
+		}
+		return lote;
+	}
+
+	private void liberar(List<Long> ids) {
+		try {
+			transaccion.execute(estado -> outboxDao.liberar(ids));
+		} catch (RuntimeException e) {
+			log.warn("No se pudo liberar el lote de eventos de productos, se reintentará al vencer el reclamo: " + e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void cerrar() {
+		// Lo que quede en la tabla lo publicará otra instancia o esta al volver a arrancar
+		ejecutor.shutdown();
+		try {
+			ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,9 +1,37 @@
 package com.formacionbdi.springboot.app.productos.models.dao;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
 public interface ProductoDao extends CrudRepository<Producto, Long>{
 
+	// Paginación por cursor (keyset): siempre usa el índice de la PK y no depende de un OFFSET.
+	// Las páginas van a la cache de consultas; cualquier escritura en productos las invalida.
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	public List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	// Recorre la tabla completa en bloques del tamaño del fetch size, sin cargarla en memoria.
+	// En MySQL el fetch size solo se respeta con useCursorFetch=true (ver application.properties);
+	// sin él Connector/J lee el resultado entero. Debe consumirse dentro de una transacción y cerrarse al terminar.
+	@QueryHints({
+		@QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HINT_READONLY, value = "true"),
+		@QueryHint(name = HINT_CACHEABLE, value = "false")
+	})
+	@Query("select p from Producto p order by p.id")
+	public Stream<Producto> streamAll();
+
 }
@@ -0,0 +1,43 @@
+package com.formacionbdi.springboot.app.productos.models.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.formacionbdi.springboot.app.productos.models.entity.ProductoEventoOutbox;
+
+public interface ProductoEventoOutboxDao extends CrudRepository<ProductoEventoOutbox, Long>{
+
+	// Los más antiguos sin reclamar (o con el reclamo vencido), salvo los de productos que tienen un evento
+	// anterior en vuelo en otro relay: así ningún evento de un producto adelanta a uno anterior. El bloqueo
+	// solo dura la transacción corta del reclamo, no el envío a RabbitMQ.
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select e from ProductoEventoOutbox e where (e.reclamadoHasta is null or e.reclamadoHasta < :ahora) "
+			+ "and not exists (select o from ProductoEventoOutbox o where o.productoId = e.productoId "
+			+ "and o.id < e.id and o.reclamadoHasta >= :ahora) order by e.id")
+	public List<ProductoEventoOutbox> findPendientes(@Param("ahora") Date ahora, Pageable pageable);
+
+	@Modifying
+	@Query("update ProductoEventoOutbox e set e.reclamadoHasta = :hasta where e.id in :ids")
+	public int reclamar(@Param("ids") List<Long> ids, @Param("hasta") Date hasta);
+
+	@Modifying
+	@Query("update ProductoEventoOutbox e set e.reclamadoHasta = null where e.id in :ids")
+	public int liberar(@Param("ids") List<Long> ids);
+
+	@Modifying
+	@Query("delete from ProductoEventoOutbox e where e.id in :ids")
+	public int deleteByIds(@Param("ids") List<Long> ids);
+
+	@Query("select min(e.createAt) from ProductoEventoOutbox e")
+	public Date findCreateAtMasAntiguo();
+
+}
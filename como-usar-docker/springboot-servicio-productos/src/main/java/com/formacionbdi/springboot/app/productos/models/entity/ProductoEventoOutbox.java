@@ -0,0 +1,102 @@
+package com.formacionbdi.springboot.app.productos.models.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
+
+/**
+ * Evento de producto pendiente de publicar. Se inserta en la misma transacción que el cambio y lo
+ * borra el relay una vez que RabbitMQ lo confirma. El id es también la versión del evento (ver ProductoEvento).
+ * Mientras un relay la está publicando, reclamadoHasta indica hasta cuándo es suya; vencido ese plazo
+ * (la instancia cayó a mitad de envío) otra la puede volver a tomar.
+ */
+@Entity
+@Table(name = "productos_outbox")
+public class ProductoEventoOutbox implements Serializable {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private ProductoEvento.Tipo tipo;
+
+	@Column(name = "producto_id", nullable = false)
+	private Long productoId;
+
+	@Column(name = "create_at", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date createAt;
+
+	@Column(name = "reclamado_hasta")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date reclamadoHasta;
+
+	public ProductoEventoOutbox() {
+	}
+
+	public ProductoEventoOutbox(ProductoEvento.Tipo tipo, Long productoId) {
+		this.tipo = tipo;
+		this.productoId = productoId;
+		this.createAt = new Date();
+	}
+
+	public ProductoEvento toEvento() {
+		return new ProductoEvento(tipo, productoId, id);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public ProductoEvento.Tipo getTipo() {
+		return tipo;
+	}
+
+	public void setTipo(ProductoEvento.Tipo tipo) {
+		this.tipo = tipo;
+	}
+
+	public Long getProductoId() {
+		return productoId;
+	}
+
+	public void setProductoId(Long productoId) {
+		this.productoId = productoId;
+	}
+
+	public Date getCreateAt() {
+		return createAt;
+	}
+
+	public void setCreateAt(Date createAt) {
+		this.createAt = createAt;
+	}
+
+	public Date getReclamadoHasta() {
+		return reclamadoHasta;
+	}
+
+	public void setReclamadoHasta(Date reclamadoHasta) {
+		this.reclamadoHasta = reclamadoHasta;
+	}
+
+	private static final long serialVersionUID = 3861150462938270144L;
+}
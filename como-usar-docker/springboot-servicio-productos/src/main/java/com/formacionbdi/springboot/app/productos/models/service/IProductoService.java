@@ -1,6 +1,7 @@
 package com.formacionbdi.springboot.app.productos.models.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
@@ -9,6 +10,12 @@ public interface IProductoService {
 	public List<Producto> findAll();
 	public Producto findById(Long id);
 	
+	public List<Producto> findAllById(List<Long> ids);
+	
+	public List<Producto> findAllAfter(Long after, int limit);
+	
+	public void streamAll(Consumer<Producto> consumer);
+	
 	public Producto save(Producto producto);
 	
 	public void deleteById(Long id);
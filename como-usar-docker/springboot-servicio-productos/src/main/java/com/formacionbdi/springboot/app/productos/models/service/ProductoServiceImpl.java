@@ -1,12 +1,27 @@
 package com.formacionbdi.springboot.app.productos.models.service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.formacionbdi.springboot.app.commons.eventos.ProductoEvento;
 import com.formacionbdi.springboot.app.productos.models.dao.ProductoDao;
+import com.formacionbdi.springboot.app.productos.models.dao.ProductoEventoOutboxDao;
+import com.formacionbdi.springboot.app.productos.models.entity.ProductoEventoOutbox;
 import com.formacionbdi.springboot.app.commons.models.entity.Producto;
 
 @Service
@@ -15,6 +30,12 @@ public class ProductoServiceImpl implements IProductoService{
 	@Autowired
 	private ProductoDao productoDao;
 	
+	@PersistenceContext
+	private EntityManager em;
+	
+	@Autowired
+	private ProductoEventoOutboxDao outboxDao;
+	
 	@Override
 	@Transactional(readOnly = true)
 	public List<Producto> findAll() {
@@ -27,16 +48,52 @@ public class ProductoServiceImpl implements IProductoService{
 		return productoDao.findById(id).orElse(null);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<Producto> findAllById(List<Long> ids) {
+		Set<Long> unicos = new LinkedHashSet<>(ids);
+		Map<Long, Producto> porId = ((List<Producto>) productoDao.findAllById(unicos)).stream()
+				.collect(Collectors.toMap(Producto::getId, Function.identity()));
+		return unicos.stream().map(porId::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Producto> findAllAfter(Long after, int limit) {
+		return productoDao.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAll(Consumer<Producto> consumer) {
+		try (Stream<Producto> productos = productoDao.streamAll()) {
+			productos.forEach(producto -> {
+				consumer.accept(producto);
+				// Se desacopla del contexto de persistencia para que la memoria no crezca con la tabla
+				em.detach(producto);
+			});
+		}
+	}
+
 	@Override
 	@Transactional
 	public Producto save(Producto producto) {
-		return productoDao.save(producto);
+		ProductoEvento.Tipo tipo = producto.getId() == null ? ProductoEvento.Tipo.CREADO : ProductoEvento.Tipo.ACTUALIZADO;
+		Producto guardado = productoDao.save(producto);
+		publicar(tipo, guardado.getId());
+		return guardado;
 	}
 
 	@Override
 	@Transactional
 	public void deleteById(Long id) {
 		productoDao.deleteById(id);
+		publicar(ProductoEvento.Tipo.ELIMINADO, id);
+	}
+	
+	// Se guarda en el outbox dentro de la misma transacción; lo envía RelayProductoEventos
+	private void publicar(ProductoEvento.Tipo tipo, Long id) {
+		outboxDao.save(new ProductoEventoOutbox(tipo, id));
 	}
 
 }
@@ -0,0 +1,100 @@
+package com.formacionbdi.springboot.app.productos;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput de GET /ver/{id} con la cache de segundo nivel de Hibernate activada y desactivada.
+ * Levanta servicio-productos con H2 en memoria y los 9 productos de import.sql, sin Eureka ni config server.
+ *
+ * Con H2 en el mismo proceso cada consulta es mucho más barata que contra MySQL por red, así que la
+ * diferencia medida es un mínimo de lo que se gana en producción.
+ *
+ * Se ejecuta con el main (desde el IDE o con el classpath de test tras mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class VerProductoBenchmark {
+
+	private static final int PRODUCTOS = 9;
+
+	@Param({ "true", "false" })
+	private boolean cacheSegundoNivel;
+
+	private ConfigurableApplicationContext contexto;
+	private HttpClient client;
+	private String base;
+	private final AtomicLong siguiente = new AtomicLong();
+
+	@Setup
+	public void setup() {
+		contexto = new SpringApplicationBuilder(SpringbootServicioProductosApplication.class).run(
+				"--server.port=0",
+				"--spring.cloud.config.enabled=false",
+				"--eureka.client.enabled=false",
+				"--spring.zipkin.enabled=false",
+				"--spring.sleuth.enabled=false",
+				"--spring.rabbitmq.listener.simple.auto-startup=false",
+				"--spring.datasource.url=jdbc:h2:mem:productos;DB_CLOSE_DELAY=-1",
+				"--spring.jpa.hibernate.ddl-auto=create-drop",
+				"--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cacheSegundoNivel,
+				"--spring.jpa.properties.hibernate.cache.use_query_cache=" + cacheSegundoNivel,
+				"--spring.jpa.properties.hibernate.generate_statistics=false",
+				"--logging.level.root=WARN");
+		int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+		base = "http://localhost:" + puerto + "/ver/";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public int ver() throws IOException, InterruptedException {
+		long id = 1 + siguiente.getAndIncrement() % PRODUCTOS;
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + id)).GET().build();
+		HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("GET /ver/" + id + " devolvió " + response.statusCode());
+		}
+		return response.body().length;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(VerProductoBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
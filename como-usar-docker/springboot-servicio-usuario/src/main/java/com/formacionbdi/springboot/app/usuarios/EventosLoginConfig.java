@@ -0,0 +1,38 @@
+package com.formacionbdi.springboot.app.usuarios;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cola durable donde llegan los lotes de eventos de login que publica servicio-oauth.
+ */
+@Configuration
+public class EventosLoginConfig {
+
+    @Bean
+    public FanoutExchange eventosLoginExchange(@Value("${usuarios.eventos-login.exchange:auth.eventos-login}") String exchange) {
+        return new FanoutExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Queue eventosLoginQueue(@Value("${usuarios.eventos-login.cola:usuarios.eventos-login}") String cola) {
+        return new Queue(cola, true);
+    }
+
+    @Bean
+    public Binding eventosLoginBinding(FanoutExchange eventosLoginExchange, Queue eventosLoginQueue) {
+        return BindingBuilder.bind(eventosLoginQueue).to(eventosLoginExchange);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
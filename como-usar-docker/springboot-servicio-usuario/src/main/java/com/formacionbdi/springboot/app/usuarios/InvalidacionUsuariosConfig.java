@@ -0,0 +1,33 @@
+package com.formacionbdi.springboot.app.usuarios;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Avisos de invalidación de la cache de usuarios entre instancias: cada una declara su cola
+ * anónima (exclusiva, se borra al desconectarse) atada al mismo exchange fanout.
+ */
+@Configuration
+public class InvalidacionUsuariosConfig {
+
+    @Bean
+    public FanoutExchange invalidacionesUsuariosExchange(@Value("${usuarios.cache.exchange:usuarios.cache.invalidaciones}") String exchange) {
+        return new FanoutExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Queue invalidacionesUsuariosQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding invalidacionesUsuariosBinding(FanoutExchange invalidacionesUsuariosExchange, Queue invalidacionesUsuariosQueue) {
+        return BindingBuilder.bind(invalidacionesUsuariosQueue).to(invalidacionesUsuariosExchange);
+    }
+}
@@ -0,0 +1,63 @@
+package com.formacionbdi.springboot.app.usuarios.controllers;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
+import com.formacionbdi.springboot.app.usuarios.models.service.IAutenticacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Operaciones de login para servicio-oauth. Son internas: el gateway y zuul no las exponen.
+ */
+@RestController
+@RequestMapping("/autenticacion")
+public class AutenticacionController {
+
+    @Autowired
+    private IAutenticacionService autenticacionService;
+
+    // JSON plano sin HAL, con los roles ya resueltos en la misma consulta
+    @GetMapping("/usuario/{username}")
+    public UsuarioAutenticacion buscar(@PathVariable String username) {
+        UsuarioAutenticacion usuario = autenticacionService.buscarParaAutenticacion(username);
+        if (usuario == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe el usuario " + username);
+        }
+        return usuario;
+    }
+
+    @PostMapping("/incrementar-intentos/{username}")
+    public IntentosLogin incrementarIntentos(@PathVariable String username) {
+        return existente(autenticacionService.incrementarIntentos(username), username);
+    }
+
+    @PostMapping("/reiniciar-intentos/{username}")
+    public IntentosLogin reiniciarIntentos(@PathVariable String username) {
+        return existente(autenticacionService.reiniciarIntentos(username), username);
+    }
+
+    // Recibe el hash ya calculado por servicio-oauth (rehash al cambiar el coste de BCrypt)
+    @PutMapping("/password/{username}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cambiarPassword(@PathVariable String username, @RequestBody String password) {
+        if (!autenticacionService.cambiarPassword(username, password)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe el usuario " + username);
+        }
+    }
+
+    private IntentosLogin existente(IntentosLogin intentos, String username) {
+        if (intentos == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe el usuario " + username);
+        }
+        return intentos;
+    }
+}
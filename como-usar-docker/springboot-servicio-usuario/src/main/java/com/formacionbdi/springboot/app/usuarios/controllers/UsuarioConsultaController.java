@@ -0,0 +1,39 @@
+package com.formacionbdi.springboot.app.usuarios.controllers;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.usuarios.models.service.IUsuarioConsultaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Sustituye a los GET de Spring Data REST sobre un usuario para que no vayan a la base de datos en cada
+ * petición. La respuesta sigue siendo el mismo HAL; las escrituras siguen en el controlador de Spring Data REST.
+ */
+@RepositoryRestController
+public class UsuarioConsultaController {
+
+    @Autowired
+    private IUsuarioConsultaService usuarioConsultaService;
+
+    @GetMapping("/usuarios/{id}")
+    public ResponseEntity<?> buscarPorId(@PathVariable Long id, PersistentEntityResourceAssembler assembler) {
+        return respuesta(usuarioConsultaService.buscarPorId(id), assembler);
+    }
+
+    @GetMapping("/usuarios/search/buscar-username")
+    public ResponseEntity<?> buscarPorUsername(@RequestParam String username, PersistentEntityResourceAssembler assembler) {
+        return respuesta(usuarioConsultaService.buscarPorUsername(username), assembler);
+    }
+
+    private ResponseEntity<?> respuesta(Usuario usuario, PersistentEntityResourceAssembler assembler) {
+        if (usuario == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(assembler.toFullResource(usuario));
+    }
+}
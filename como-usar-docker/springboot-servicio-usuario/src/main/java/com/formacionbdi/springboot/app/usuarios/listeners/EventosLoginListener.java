@@ -0,0 +1,24 @@
+package com.formacionbdi.springboot.app.usuarios.listeners;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.LoteEventosLogin;
+import com.formacionbdi.springboot.app.usuarios.models.service.IAutenticacionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EventosLoginListener {
+
+    private Logger log = LoggerFactory.getLogger(EventosLoginListener.class);
+
+    @Autowired
+    private IAutenticacionService autenticacionService;
+
+    @RabbitListener(queues = "${usuarios.eventos-login.cola:usuarios.eventos-login}")
+    public void recibir(LoteEventosLogin lote) {
+        log.debug("Aplicando lote de " + lote.getEventos().size() + " eventos de login");
+        autenticacionService.aplicarEventos(lote.getEventos());
+    }
+}
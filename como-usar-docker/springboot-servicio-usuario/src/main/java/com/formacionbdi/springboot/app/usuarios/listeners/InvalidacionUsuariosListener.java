@@ -0,0 +1,94 @@
+package com.formacionbdi.springboot.app.usuarios.listeners;
+
+import com.formacionbdi.springboot.app.usuarios.models.service.CacheUsuarios;
+import com.formacionbdi.springboot.app.usuarios.models.service.UsuarioModificado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Invalida la cache local cuando se confirma un cambio de usuario y avisa al resto de instancias
+ * por un exchange fanout; cada instancia escucha en su propia cola anónima.
+ */
+@Component
+public class InvalidacionUsuariosListener {
+
+    // Identifica esta instancia para no aplicar dos veces sus propios avisos
+    private static final String ORIGEN = UUID.randomUUID().toString();
+
+    private Logger log = LoggerFactory.getLogger(InvalidacionUsuariosListener.class);
+
+    @Autowired
+    private CacheUsuarios cache;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${usuarios.cache.exchange:usuarios.cache.invalidaciones}")
+    private String exchange;
+
+    // Fuera de transacción (eventos de Spring Data REST) se ejecuta en el momento
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioModificado(UsuarioModificado evento) {
+        cache.invalidar(evento.getId(), evento.getUsername());
+        try {
+            rabbitTemplate.convertAndSend(exchange, "", new Invalidacion(evento.getId(), evento.getUsername(), ORIGEN));
+        } catch (AmqpException e) {
+            log.warn("No se pudo avisar la invalidación del usuario " + evento.getUsername() + " al resto de instancias: " + e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{invalidacionesUsuariosQueue.name}")
+    public void recibir(Invalidacion invalidacion) {
+        if (!ORIGEN.equals(invalidacion.getOrigen())) {
+            cache.invalidar(invalidacion.getId(), invalidacion.getUsername());
+        }
+    }
+
+    public static class Invalidacion {
+        private Long id;
+        private String username;
+        private String origen;
+
+        public Invalidacion() {
+        }
+
+        public Invalidacion(Long id, String username, String origen) {
+            this.id = id;
+            this.username = username;
+            this.origen = origen;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getOrigen() {
+            return origen;
+        }
+
+        public void setOrigen(String origen) {
+            this.origen = origen;
+        }
+    }
+}
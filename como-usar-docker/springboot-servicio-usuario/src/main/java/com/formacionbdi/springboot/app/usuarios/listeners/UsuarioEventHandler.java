@@ -0,0 +1,37 @@
+package com.formacionbdi.springboot.app.usuarios.listeners;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.usuarios.models.service.UsuarioModificado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkSave;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Altas, ediciones (PUT/PATCH /usuarios/{id}), bajas y cambios de roles hechos por Spring Data REST.
+ */
+@Component
+@RepositoryEventHandler
+public class UsuarioEventHandler {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void usuarioModificado(Usuario usuario) {
+        publisher.publishEvent(new UsuarioModificado(usuario.getId(), usuario.getUsername()));
+    }
+
+    @HandleAfterLinkSave
+    @HandleAfterLinkDelete
+    public void rolesModificados(Usuario usuario, Object roles) {
+        publisher.publishEvent(new UsuarioModificado(usuario.getId(), usuario.getUsername()));
+    }
+}
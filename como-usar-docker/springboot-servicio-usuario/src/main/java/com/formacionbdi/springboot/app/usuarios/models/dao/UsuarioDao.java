@@ -1,6 +1,9 @@
 package com.formacionbdi.springboot.app.usuarios.models.dao;
 
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
 import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -15,4 +18,42 @@ public interface UsuarioDao extends PagingAndSortingRepository<Usuario, Long> {
 
     @Query("select u from Usuario u where u.username = ?1")
     public Usuario obtenerPorUsername(String username);
+
+    // Usuario y roles en una sola consulta para la autenticación
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "roles")
+    @Query("select u from Usuario u where u.username = :username")
+    public Usuario buscarConRoles(@Param("username") String username);
+
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "roles")
+    @Query("select u from Usuario u where u.id = :id")
+    public Usuario buscarConRolesPorId(@Param("id") Long id);
+
+    @RestResource(exported = false)
+    @Query("select u.id from Usuario u where u.username = :username")
+    public Long buscarId(@Param("username") String username);
+
+    // Un solo UPDATE: suma los intentos y deshabilita la cuenta al llegar al máximo, sin carreras entre logins
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true)
+    @Query("update Usuario u set u.intentos = coalesce(u.intentos, 0) + :cantidad, " +
+            "u.enabled = case when coalesce(u.intentos, 0) + :cantidad >= :maximo then false else u.enabled end " +
+            "where u.username = :username")
+    public int incrementarIntentos(@Param("username") String username, @Param("cantidad") int cantidad, @Param("maximo") int maximo);
+
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true)
+    @Query("update Usuario u set u.intentos = 0 where u.username = :username and u.intentos > 0")
+    public int reiniciarIntentos(@Param("username") String username);
+
+    @RestResource(exported = false)
+    @Modifying(clearAutomatically = true)
+    @Query("update Usuario u set u.password = :password where u.username = :username")
+    public int cambiarPassword(@Param("username") String username, @Param("password") String password);
+
+    @RestResource(exported = false)
+    @Query("select new com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin(u.username, u.intentos, u.enabled) " +
+            "from Usuario u where u.username = :username")
+    public IntentosLogin obtenerIntentos(@Param("username") String username);
 }
@@ -0,0 +1,121 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.EventoLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Role;
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.usuarios.models.dao.UsuarioDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class AutenticacionServiceImpl implements IAutenticacionService {
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private CacheUsuarios cache;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Value("${usuarios.intentos.maximo:3}")
+    private int maximoIntentos;
+
+    // Sin transacción propia: un acierto en la cache no toca la base de datos
+    @Override
+    public UsuarioAutenticacion buscarParaAutenticacion(String username) {
+        return cache.obtener(username, this::cargar);
+    }
+
+    private UsuarioAutenticacion cargar(String username) {
+        Usuario usuario = usuarioDao.buscarConRoles(username);
+        if (usuario == null) {
+            return null;
+        }
+        UsuarioAutenticacion dto = new UsuarioAutenticacion();
+        dto.setId(usuario.getId());
+        dto.setUsername(usuario.getUsername());
+        dto.setPassword(usuario.getPassword());
+        dto.setEnabled(usuario.getEnabled());
+        dto.setIntentos(usuario.getIntentos());
+        dto.setNombre(usuario.getNombre());
+        dto.setApellido(usuario.getApellido());
+        dto.setEmail(usuario.getEmail());
+        dto.setRoles(usuario.getRoles().stream().map(Role::getNombre).collect(Collectors.toList()));
+        return dto;
+    }
+
+    // El UPDATE deja la fila bloqueada hasta el commit, así la lectura posterior ve el valor que dejó este intento
+    @Override
+    @Transactional
+    public IntentosLogin incrementarIntentos(String username) {
+        modificado(username, usuarioDao.incrementarIntentos(username, 1, maximoIntentos));
+        return usuarioDao.obtenerIntentos(username);
+    }
+
+    @Override
+    @Transactional
+    public IntentosLogin reiniciarIntentos(String username) {
+        modificado(username, usuarioDao.reiniciarIntentos(username));
+        return usuarioDao.obtenerIntentos(username);
+    }
+
+    @Override
+    @Transactional
+    public boolean cambiarPassword(String username, String password) {
+        return modificado(username, usuarioDao.cambiarPassword(username, password));
+    }
+
+    /**
+     * Reduce el lote a como mucho dos UPDATE por usuario: un login correcto borra los fallos anteriores,
+     * así que basta con reiniciar si hubo alguno y sumar los fallos que vinieron después del último.
+     */
+    @Override
+    @Transactional
+    public void aplicarEventos(List<EventoLogin> eventos) {
+        Map<String, Resumen> porUsuario = new LinkedHashMap<>();
+        for (EventoLogin evento : eventos) {
+            Resumen resumen = porUsuario.computeIfAbsent(evento.getUsername(), k -> new Resumen());
+            if (evento.isExito()) {
+                resumen.reiniciar = true;
+                resumen.fallos = 0;
+            } else {
+                resumen.fallos++;
+            }
+        }
+        porUsuario.forEach((username, resumen) -> {
+            int filas = 0;
+            if (resumen.reiniciar) {
+                filas += usuarioDao.reiniciarIntentos(username);
+            }
+            if (resumen.fallos > 0) {
+                filas += usuarioDao.incrementarIntentos(username, resumen.fallos, maximoIntentos);
+            }
+            modificado(username, filas);
+        });
+    }
+
+    // Los UPDATE en JPQL no pasan por los eventos de Spring Data REST; la cache se invalida tras el commit
+    private boolean modificado(String username, int filas) {
+        if (filas > 0) {
+            publisher.publishEvent(new UsuarioModificado(null, username));
+        }
+        return filas > 0;
+    }
+
+    private static class Resumen {
+        private boolean reiniciar;
+        private int fallos;
+    }
+}
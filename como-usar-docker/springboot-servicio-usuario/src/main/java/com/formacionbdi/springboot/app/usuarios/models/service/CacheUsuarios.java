@@ -0,0 +1,127 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Usuarios para autenticación por username, con un índice por id para poder invalidar un usuario
+ * aunque se haya cambiado su username. Se cachea el DTO y no la entidad: Spring Data REST mezcla el
+ * cuerpo de un PUT sobre la instancia que devuelve findById, y una entidad compartida quedaría modificada.
+ *
+ * Aparte se guardan entidades (con sus roles ya cargados) solo para las lecturas GET /usuarios/{id} y
+ * search/buscar-username, que no pasan por findById; nunca se modifican, solo se serializan.
+ *
+ * El TTL es solo una red de seguridad; las invalidaciones llegan por UsuarioModificado y por RabbitMQ.
+ */
+@Component
+public class CacheUsuarios {
+
+    @Value("${usuarios.cache.tamano-maximo:10000}")
+    private long tamanoMaximo;
+
+    @Value("${usuarios.cache.ttl-segundos:300}")
+    private long ttl;
+
+    private Cache<String, UsuarioAutenticacion> porUsername;
+    private Cache<Long, UsuarioAutenticacion> porId;
+    private Cache<Long, Usuario> entidades;
+    private Cache<String, Long> idsEntidades;
+
+    @PostConstruct
+    public void init() {
+        porUsername = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        porId = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        entidades = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        idsEntidades = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+    }
+
+    public UsuarioAutenticacion obtener(String username, Function<String, UsuarioAutenticacion> cargar) {
+        return porUsername.get(username, k -> {
+            UsuarioAutenticacion usuario = cargar.apply(k);
+            if (usuario != null) {
+                porId.put(usuario.getId(), usuario);
+            }
+            return usuario;
+        });
+    }
+
+    public Usuario obtenerEntidad(Long id, Function<Long, Usuario> cargar) {
+        Usuario usuario = entidades.get(id, cargar);
+        if (usuario != null) {
+            idsEntidades.put(usuario.getUsername(), id);
+        }
+        return usuario;
+    }
+
+    /**
+     * Resuelve el username a id y carga la entidad por id, las dos con Cache.get: una invalidación que
+     * llega mientras se carga espera a que termine y la quita, en lugar de que la carga la vuelva a guardar.
+     * El id guardado puede ser de antes de un cambio de username, por eso se comprueba el username obtenido.
+     */
+    public Usuario obtenerEntidad(String username, Function<String, Long> cargarId, Function<Long, Usuario> cargar) {
+        for (int intento = 0; intento < 2; intento++) {
+            Long id = idsEntidades.get(username, cargarId);
+            Usuario usuario = id != null ? entidades.get(id, cargar) : null;
+            if (usuario == null || username.equalsIgnoreCase(usuario.getUsername())) {
+                return usuario;
+            }
+            idsEntidades.invalidate(username);
+        }
+        return null;
+    }
+
+    /**
+     * Quita el usuario por cualquiera de las dos claves; se acepta null en la que no se conozca.
+     */
+    public void invalidar(Long id, String username) {
+        if (id != null) {
+            UsuarioAutenticacion anterior = porId.getIfPresent(id);
+            if (anterior != null) {
+                porUsername.invalidate(anterior.getUsername());
+            }
+            porId.invalidate(id);
+            invalidarEntidad(id);
+        }
+        if (username != null) {
+            UsuarioAutenticacion anterior = porUsername.getIfPresent(username);
+            if (anterior != null) {
+                porId.invalidate(anterior.getId());
+                invalidarEntidad(anterior.getId());
+            }
+            porUsername.invalidate(username);
+            // remove espera a una carga en curso de ese username y devuelve el id que haya dejado
+            Long idEntidad = idsEntidades.asMap().remove(username);
+            if (idEntidad != null) {
+                invalidarEntidad(idEntidad);
+            }
+        }
+    }
+
+    private void invalidarEntidad(Long id) {
+        Usuario anterior = entidades.getIfPresent(id);
+        if (anterior != null) {
+            idsEntidades.invalidate(anterior.getUsername());
+        }
+        entidades.invalidate(id);
+    }
+}
@@ -0,0 +1,20 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.EventoLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.IntentosLogin;
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.UsuarioAutenticacion;
+
+import java.util.List;
+
+public interface IAutenticacionService {
+
+    public UsuarioAutenticacion buscarParaAutenticacion(String username);
+
+    public IntentosLogin incrementarIntentos(String username);
+
+    public IntentosLogin reiniciarIntentos(String username);
+
+    public boolean cambiarPassword(String username, String password);
+
+    public void aplicarEventos(List<EventoLogin> eventos);
+}
@@ -0,0 +1,10 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+
+public interface IUsuarioConsultaService {
+
+    public Usuario buscarPorId(Long id);
+
+    public Usuario buscarPorUsername(String username);
+}
@@ -0,0 +1,30 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.entity.Usuario;
+import com.formacionbdi.springboot.app.usuarios.models.dao.UsuarioDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lecturas de usuarios de la API REST servidas desde CacheUsuarios. Los roles se cargan en la misma
+ * consulta para que la entidad se pueda serializar después de cerrar la sesión de Hibernate.
+ */
+@Service
+public class UsuarioConsultaServiceImpl implements IUsuarioConsultaService {
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private CacheUsuarios cache;
+
+    @Override
+    public Usuario buscarPorId(Long id) {
+        return cache.obtenerEntidad(id, usuarioDao::buscarConRolesPorId);
+    }
+
+    @Override
+    public Usuario buscarPorUsername(String username) {
+        return cache.obtenerEntidad(username, usuarioDao::buscarId, usuarioDao::buscarConRolesPorId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+/**
+ * Un usuario cambió (alta, edición, baja, roles o intentos). id o username pueden ser null si no se conocen.
+ */
+public class UsuarioModificado {
+
+    private final Long id;
+    private final String username;
+
+    public UsuarioModificado(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,115 @@
+package com.formacionbdi.springboot.app.usuarios.models.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.formacionbdi.springboot.app.commons.usuarios.models.dto.EventoLogin;
+import com.formacionbdi.springboot.app.usuarios.models.dao.UsuarioDao;
+
+@ExtendWith(MockitoExtension.class)
+class AutenticacionServiceImplTests {
+
+	@Mock
+	private UsuarioDao usuarioDao;
+
+	@Mock
+	private CacheUsuarios cache;
+
+	@Mock
+	private ApplicationEventPublisher publisher;
+
+	@InjectMocks
+	private AutenticacionServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "maximoIntentos", 3);
+	}
+
+	@Test
+	void variosFallosSeSumanEnUnSoloUpdate() {
+		when(usuarioDao.incrementarIntentos("ana", 2, 3)).thenReturn(1);
+
+		service.aplicarEventos(Arrays.asList(fallo("ana"), fallo("ana")));
+
+		verify(usuarioDao).incrementarIntentos("ana", 2, 3);
+		verify(usuarioDao, never()).reiniciarIntentos(anyString());
+		verify(publisher).publishEvent(any(UsuarioModificado.class));
+	}
+
+	@Test
+	void unAciertoDescartaLosFallosAnteriores() {
+		when(usuarioDao.reiniciarIntentos("ana")).thenReturn(1);
+		when(usuarioDao.incrementarIntentos("ana", 1, 3)).thenReturn(1);
+
+		service.aplicarEventos(Arrays.asList(fallo("ana"), exito("ana"), fallo("ana")));
+
+		InOrder orden = Mockito.inOrder(usuarioDao);
+		orden.verify(usuarioDao).reiniciarIntentos("ana");
+		orden.verify(usuarioDao).incrementarIntentos("ana", 1, 3);
+		verify(publisher, times(1)).publishEvent(any(UsuarioModificado.class));
+	}
+
+	@Test
+	void soloAciertosReinicianSinIncrementar() {
+		when(usuarioDao.reiniciarIntentos("ana")).thenReturn(1);
+
+		service.aplicarEventos(Arrays.asList(exito("ana"), exito("ana")));
+
+		verify(usuarioDao, times(1)).reiniciarIntentos("ana");
+		verify(usuarioDao, never()).incrementarIntentos(anyString(), anyInt(), anyInt());
+	}
+
+	@Test
+	void cadaUsuarioSeResumeAparte() {
+		when(usuarioDao.incrementarIntentos("ana", 1, 3)).thenReturn(1);
+		when(usuarioDao.reiniciarIntentos("luis")).thenReturn(1);
+		when(usuarioDao.incrementarIntentos("luis", 2, 3)).thenReturn(1);
+
+		service.aplicarEventos(Arrays.asList(exito("luis"), fallo("ana"), fallo("luis"), fallo("luis")));
+
+		verify(usuarioDao).incrementarIntentos("ana", 1, 3);
+		verify(usuarioDao, never()).reiniciarIntentos("ana");
+		verify(usuarioDao).reiniciarIntentos("luis");
+		verify(usuarioDao).incrementarIntentos("luis", 2, 3);
+		verify(publisher, times(2)).publishEvent(any(UsuarioModificado.class));
+	}
+
+	@Test
+	void sinFilasModificadasNoSeInvalidaLaCache() {
+		// Reiniciar un usuario que ya tenía 0 intentos no toca la fila
+		when(usuarioDao.reiniciarIntentos("ana")).thenReturn(0);
+
+		service.aplicarEventos(Collections.singletonList(exito("ana")));
+
+		verifyNoInteractions(publisher);
+	}
+
+	private static EventoLogin fallo(String username) {
+		return new EventoLogin(username, false, System.currentTimeMillis());
+	}
+
+	private static EventoLogin exito(String username) {
+		return new EventoLogin(username, true, System.currentTimeMillis());
+	}
+}
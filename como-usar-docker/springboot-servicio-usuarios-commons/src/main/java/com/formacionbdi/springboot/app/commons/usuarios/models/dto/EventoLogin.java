@@ -0,0 +1,49 @@
+package com.formacionbdi.springboot.app.commons.usuarios.models.dto;
+
+import java.io.Serializable;
+
+/**
+ * Resultado de un intento de login, publicado por servicio-oauth para que servicio-usuarios
+ * actualice los intentos fallidos.
+ */
+public class EventoLogin implements Serializable {
+
+    private String username;
+    private boolean exito;
+    private long instante;
+
+    public EventoLogin() {
+    }
+
+    public EventoLogin(String username, boolean exito, long instante) {
+        this.username = username;
+        this.exito = exito;
+        this.instante = instante;
+    }
+
+    private static final long serialVersionUID = -2216405581233749830L;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public boolean isExito() {
+        return exito;
+    }
+
+    public void setExito(boolean exito) {
+        this.exito = exito;
+    }
+
+    public long getInstante() {
+        return instante;
+    }
+
+    public void setInstante(long instante) {
+        this.instante = instante;
+    }
+}
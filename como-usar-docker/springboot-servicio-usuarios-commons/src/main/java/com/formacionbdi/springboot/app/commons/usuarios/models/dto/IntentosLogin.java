@@ -0,0 +1,48 @@
+package com.formacionbdi.springboot.app.commons.usuarios.models.dto;
+
+import java.io.Serializable;
+
+/**
+ * Intentos fallidos de login de un usuario y si sigue habilitado, tras incrementarlos o reiniciarlos.
+ */
+public class IntentosLogin implements Serializable {
+
+    private String username;
+    private Integer intentos;
+    private Boolean enabled;
+
+    public IntentosLogin() {
+    }
+
+    public IntentosLogin(String username, Integer intentos, Boolean enabled) {
+        this.username = username;
+        this.intentos = intentos;
+        this.enabled = enabled;
+    }
+
+    private static final long serialVersionUID = 6051334120715043418L;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Integer getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(Integer intentos) {
+        this.intentos = intentos;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,30 @@
+package com.formacionbdi.springboot.app.commons.usuarios.models.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eventos de login en el orden en que ocurrieron, enviados en un solo mensaje.
+ */
+public class LoteEventosLogin implements Serializable {
+
+    private List<EventoLogin> eventos = new ArrayList<>();
+
+    public LoteEventosLogin() {
+    }
+
+    public LoteEventosLogin(List<EventoLogin> eventos) {
+        this.eventos = eventos;
+    }
+
+    private static final long serialVersionUID = 4423097131604876612L;
+
+    public List<EventoLogin> getEventos() {
+        return eventos;
+    }
+
+    public void setEventos(List<EventoLogin> eventos) {
+        this.eventos = eventos;
+    }
+}
@@ -1,5 +1,8 @@
 package com.formacionbdi.springboot.app.commons.usuarios.models.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.List;
@@ -27,7 +30,9 @@ public class Usuario implements Serializable {
 
     private Integer intentos;
 
+    // Solo se cachean los ids de los roles; cada Role sale de su propia región
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios.roles")
     @JoinTable(
             name = "usuarios_to_roles",
             joinColumns = @JoinColumn(name = "user_id"),
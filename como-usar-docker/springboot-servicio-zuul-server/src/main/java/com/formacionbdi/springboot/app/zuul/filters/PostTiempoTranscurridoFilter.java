@@ -1,23 +1,53 @@
 package com.formacionbdi.springboot.app.zuul.filters;
 
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
 import org.springframework.stereotype.Component;
 
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
 import com.netflix.zuul.exception.ZuulException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Registra la latencia de cada petición en el timer zuul.latencia (por ruta, servicio y estado, con
+ * percentiles) y solo escribe en el log las peticiones lentas o una muestra aleatoria de las demás.
+ */
 @Component
 public class PostTiempoTranscurridoFilter extends ZuulFilter{
 	
 	private static Logger log = LoggerFactory.getLogger(PostTiempoTranscurridoFilter.class);
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	@Value("${zuul.latencia.lenta-ms:1000}")
+	private long lentaMs;
+	
+	// Fracción de las peticiones normales que se escriben en el log (0 = ninguna)
+	@Value("${zuul.latencia.muestreo:0.0}")
+	private double muestreo;
+	
+	// Timers ya registrados, para no pasar por el builder y el registro en cada petición
+	private final ConcurrentMap<Etiquetas, Timer> timers = new ConcurrentHashMap<>();
 
 	@Override
 	public boolean shouldFilter() {
-		return true;
+		return RequestContext.getCurrentContext().getRequest().getAttribute(PreTiempoTranscurridoFilter.MUESTRA) != null;
 	}
 
 	@Override
@@ -26,17 +56,31 @@ public class PostTiempoTranscurridoFilter extends ZuulFilter{
 		RequestContext ctx = RequestContext.getCurrentContext();
 		HttpServletRequest request = ctx.getRequest();
 		
-		log.info("Entrando a post filter");
-				
-		Long tiempoInicio = (Long) request.getAttribute("tiempoInicio");
-		Long tiempoFinal = System.currentTimeMillis();
-		Long tiempoTranscurrido = tiempoFinal - tiempoInicio;
+		Timer.Sample muestra = (Timer.Sample) request.getAttribute(PreTiempoTranscurridoFilter.MUESTRA);
+		request.removeAttribute(PreTiempoTranscurridoFilter.MUESTRA);
+		
+		String ruta = Optional.ofNullable((String) ctx.get(FilterConstants.PROXY_KEY)).orElse("ninguna");
+		String servicio = Optional.ofNullable((String) ctx.get(FilterConstants.SERVICE_ID_KEY)).orElse("ninguno");
+		Etiquetas etiquetas = new Etiquetas(ruta, servicio, String.valueOf(ctx.getResponseStatusCode()));
+		long nanos = muestra.stop(timers.computeIfAbsent(etiquetas, this::crearTimer));
 		
-		log.info(String.format("Tiempo transcurrido en segundos %s seg.", tiempoTranscurrido.doubleValue()/1000.00));
-		log.info(String.format("Tiempo transcurrido en mileseg %s ms.", tiempoTranscurrido));
+		long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+		if (ms >= lentaMs) {
+			log.warn("Petición lenta: {} {} -> {} ({}) en {} ms", request.getMethod(), request.getRequestURI(), servicio, ctx.getResponseStatusCode(), ms);
+		} else if (muestreo > 0 && ThreadLocalRandom.current().nextDouble() < muestreo) {
+			log.info("{} {} -> {} ({}) en {} ms", request.getMethod(), request.getRequestURI(), servicio, ctx.getResponseStatusCode(), ms);
+		}
 		return null;
 	}
 
+	private Timer crearTimer(Etiquetas etiquetas) {
+		return Timer.builder("zuul.latencia")
+				.description("Latencia de las peticiones que pasan por zuul")
+				.tags("ruta", etiquetas.ruta, "servicio", etiquetas.servicio, "estado", etiquetas.estado)
+				.publishPercentiles(0.5, 0.9, 0.99, 0.999)
+				.register(registry);
+	}
+
 	@Override
 	public String filterType() {
 		return "post";
@@ -47,4 +91,33 @@ public class PostTiempoTranscurridoFilter extends ZuulFilter{
 		return 1;
 	}
 
+	private static final class Etiquetas {
+		private final String ruta;
+		private final String servicio;
+		private final String estado;
+
+		Etiquetas(String ruta, String servicio, String estado) {
+			this.ruta = ruta;
+			this.servicio = servicio;
+			this.estado = estado;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Etiquetas)) {
+				return false;
+			}
+			Etiquetas otras = (Etiquetas) obj;
+			return ruta.equals(otras.ruta) && servicio.equals(otras.servicio) && estado.equals(otras.estado);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(ruta, servicio, estado);
+		}
+	}
+
 }
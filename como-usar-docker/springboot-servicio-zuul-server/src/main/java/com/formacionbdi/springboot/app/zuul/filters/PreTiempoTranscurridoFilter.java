@@ -1,19 +1,22 @@
 package com.formacionbdi.springboot.app.zuul.filters;
 
-import javax.servlet.http.HttpServletRequest;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
 import com.netflix.zuul.exception.ZuulException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Component
 public class PreTiempoTranscurridoFilter extends ZuulFilter{
 	
-	private static Logger log = LoggerFactory.getLogger(PreTiempoTranscurridoFilter.class);
+	public static final String MUESTRA = "muestraLatencia";
+	
+	@Autowired
+	private MeterRegistry registry;
 
 	@Override
 	public boolean shouldFilter() {
@@ -24,12 +27,9 @@ public class PreTiempoTranscurridoFilter extends ZuulFilter{
 	public Object run() throws ZuulException {
 
 		RequestContext ctx = RequestContext.getCurrentContext();
-		HttpServletRequest request = ctx.getRequest();
-		
-		log.info(String.format("%s request enrutado a %s", request.getMethod(), request.getRequestURL().toString()));
 		
-		Long tiempoInicio = System.currentTimeMillis();
-		request.setAttribute("tiempoInicio", tiempoInicio);
+		// El reloj de Micrometer usa System.nanoTime; se registra en PostTiempoTranscurridoFilter
+		ctx.getRequest().setAttribute(MUESTRA, Timer.start(registry));
 		
 		return null;
 	}
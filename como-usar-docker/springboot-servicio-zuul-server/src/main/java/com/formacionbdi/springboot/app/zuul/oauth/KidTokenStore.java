@@ -0,0 +1,106 @@
+package com.formacionbdi.springboot.app.zuul.oauth;
+
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.jwk.JwkTokenStore;
+
+import java.util.Collection;
+
+/**
+ * Tokens con kid: se verifican con el JWKS de servicio-oauth (JwkTokenStore lo descarga y lo cachea,
+ * y lo vuelve a pedir cuando aparece un kid nuevo). Tokens sin kid: con el secreto HMAC, mientras dure la migración.
+ */
+public class KidTokenStore implements TokenStore {
+
+    private final JwkTokenStore jwk;
+    private final JwtTokenStore hmac;
+
+    public KidTokenStore(JwkTokenStore jwk, JwtTokenStore hmac) {
+        this.jwk = jwk;
+        this.hmac = hmac;
+    }
+
+    private TokenStore elegir(String token) {
+        try {
+            if (JwtHelper.headers(token).containsKey("kid")) {
+                return jwk;
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Token JWT mal formado", e);
+        }
+        if (hmac == null) {
+            throw new InvalidTokenException("Token sin kid");
+        }
+        return hmac;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        return elegir(token).readAuthentication(token);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return elegir(tokenValue).readAccessToken(tokenValue);
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        jwk.storeAccessToken(token, authentication);
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        jwk.removeAccessToken(token);
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        jwk.storeRefreshToken(refreshToken, authentication);
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        return jwk.readRefreshToken(tokenValue);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return jwk.readAuthenticationForRefreshToken(token);
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        jwk.removeRefreshToken(token);
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        jwk.removeAccessTokenUsingRefreshToken(refreshToken);
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        return jwk.getAccessToken(authentication);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return jwk.findTokensByClientIdAndUserName(clientId, userName);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return jwk.findTokensByClientId(clientId);
+    }
+}
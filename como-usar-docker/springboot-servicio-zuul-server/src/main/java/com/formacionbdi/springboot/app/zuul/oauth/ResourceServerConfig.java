@@ -11,8 +11,10 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.jwk.JwkTokenStore;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -26,9 +28,12 @@ import java.util.Base64;
 @EnableResourceServer
 public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
 
-    @Value("${config.security.oauth.client.jwt}")
+    @Value("${config.security.oauth.client.jwt:}")
     public String jwtKey;
 
+    @Value("${config.security.oauth.jwt.jwks-uri:}")
+    public String jwksUri;
+
     @Override
     public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
         resources.tokenStore(tokenStorage());
@@ -37,6 +42,7 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
     @Override
     public void configure(HttpSecurity http) throws Exception {
         http.authorizeRequests()
+                .antMatchers("/api/usuarios/autenticacion/**").denyAll()
                 .antMatchers("/api/security/oauth/**").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/productos/listar", "/api/items/listar/", "/api/usuarios/usuarios").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/productos/ver/{id}", "/api/items/ver/{id}/cantidad/{cantidad}", "/api/usuarios/usuarios/{id}").hasAnyRole("ADMIN", "USER")
@@ -65,15 +71,21 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
     }
 
     @Bean
-    public JwtTokenStore tokenStorage() {
-        return new JwtTokenStore(accessTokenConverter());
+    public TokenStore tokenStorage() {
+        if (jwksUri.isEmpty()) {
+            return new JwtTokenStore(accessTokenConverter());
+        }
+        JwtTokenStore hmac = jwtKey.isEmpty() ? null : new JwtTokenStore(accessTokenConverter());
+        return new KidTokenStore(new JwkTokenStore(jwksUri), hmac);
     }
 
 
     @Bean
     public JwtAccessTokenConverter accessTokenConverter() {
         JwtAccessTokenConverter tokenConverter = new JwtAccessTokenConverter();
-        tokenConverter.setSigningKey(Base64.getEncoder().encodeToString(jwtKey.getBytes()));
+        if (!jwtKey.isEmpty()) {
+            tokenConverter.setSigningKey(Base64.getEncoder().encodeToString(jwtKey.getBytes()));
+        }
         return tokenConverter;
     }
 }